@@ -189,7 +189,7 @@ public class DrawingView extends View {
 
                 if (xPos >= 0 && yPos >= 0 && fill[xPos][yPos] == 0) {
                     fill[xPos][yPos] = 1;
-                    mainActivity.updateNeuralNetworkOutput(fill);
+                    mainActivity.onCellFilled(xPos, yPos);
                 }
 
             }
@@ -221,6 +221,8 @@ public class DrawingView extends View {
     public void clear() {
         fill = new int[Constants.GRID_WIDTH][Constants.GRID_HEIGHT];
 
+        mainActivity.onDrawingCleared();
+
         mBitmap = Bitmap.createBitmap(bitmapW, bitmapH, Bitmap.Config.ARGB_8888);
 
         mCanvas = new Canvas(mBitmap);
@@ -14,8 +14,8 @@ import android.widget.TextView;
 import austinpatel.handwrittenletterrecognition.data.Alphabet;
 import austinpatel.handwrittenletterrecognition.data.Constants;
 import austinpatel.handwrittenletterrecognition.data.FileManager;
-import austinpatel.handwrittenletterrecognition.data.LetterData;
 import austinpatel.handwrittenletterrecognition.neural_network.BackpropagationAlgorithm;
+import austinpatel.handwrittenletterrecognition.neural_network.IncrementalClassifier;
 import austinpatel.handwrittenletterrecognition.neural_network.NeuralNetwork;
 import austinpatel.handwrittenletterrecognition.neural_network.Trainer;
 
@@ -27,6 +27,7 @@ public class MainActivity extends AppCompatActivity {
 
     private TextView resultTextView;
     private NeuralNetwork neuralNetwork;
+    private IncrementalClassifier liveClassifier;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,6 +59,8 @@ public class MainActivity extends AppCompatActivity {
         Trainer trainer = new Trainer(neuralNetwork);
         trainer.trainNetwork();
 
+        liveClassifier = new IncrementalClassifier(neuralNetwork);
+
         // Set up result TextView
         resultTextView = (TextView) findViewById(R.id.resultTextView);
 
@@ -86,30 +89,17 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    /**Takes in the drawn boxes and uses the neural network to predict
-     * that letter and updates the prediction text on the layout.*/
-    public void updateNeuralNetworkOutput(int[][] fill) {
-        int[] colors1D = LetterData.data2DTo1D(fill);
-
-        double[] result = neuralNetwork.getOutput(colors1D);
-
-        int highestIndex = 0;
-
-        for (int i = 0; i < result.length; i++)
-            if (result[highestIndex] < result[i]) {
-                highestIndex = i;
-            }
-
-        boolean diff = false;
+    /**Adds a newly filled grid cell to the live classifier and updates the
+     * prediction text on the layout.*/
+    public void onCellFilled(int x, int y) {
+        liveClassifier.set(y * Constants.GRID_WIDTH + x);
 
-        for (int i : colors1D)
-            if (i != 0)
-                diff = true;
-
-        String resultText = String.valueOf(Alphabet.getCharacter(highestIndex));
+        resultTextView.setText(String.valueOf(Alphabet.getCharacter(liveClassifier.classify())));
+    }
 
-        if (diff)
-            resultTextView.setText(resultText);
+    /**Starts a new live classification when the drawing is cleared.*/
+    public void onDrawingCleared() {
+        liveClassifier.reset();
     }
 
 }
@@ -11,6 +11,7 @@ package austinpatel.handwrittenletterrecognition.data;
 import android.content.Context;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -31,17 +32,25 @@ public class FileManager {
 	}
 
 	public static String[] readFileContent(char letter) {
+		return readFileContent(openLetterFile(letter));
+	}
 
+	/**
+	 * Opens the raw sample file of "letter". The caller closes the stream;
+	 * "LetterDataParser" reads it without building any strings.
+	 */
+	public static InputStream openLetterFile(char letter) {
 		letter = Character.toLowerCase(letter);
 //		filePath = getAbsolutePath(filePath);
 //		File file = new File(filePath);
 
-
-		InputStream inputStream = context.getResources().openRawResource(
+		return context.getResources().openRawResource(
 				FileManager.context.getResources().getIdentifier(
 						String.valueOf(letter),"raw", context.getPackageName()));
+	}
 
-
+	/** Reads the lines of "inputStream", split on spaces, and closes it. */
+	public static String[] readFileContent(InputStream inputStream) {
 		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
 
 
@@ -55,11 +64,22 @@ public class FileManager {
 			return content.toString().split(" ");
 		} catch (Exception e) {
 			e.printStackTrace();
+		} finally {
+			close(reader);
 		}
 
 		return null;
 	}
 
+	/** Closes "closeable", reporting but otherwise ignoring failures. */
+	public static void close(Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 //	public static String getAbsolutePath(String filePath) {
 //		return System.getProperty("user.dir")
 //				+ filePath.replace(System.getProperty("user.dir"), "");
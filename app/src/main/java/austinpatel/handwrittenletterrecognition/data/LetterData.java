@@ -8,73 +8,201 @@
 
 package austinpatel.handwrittenletterrecognition.data;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import austinpatel.handwrittenletterrecognition.ui.MyColor;
 
-/** Contains data for a specific letter data. */
+/**
+ * Contains data for a specific letter data. The pixels are bit-packed into
+ * "long" words in 1D order (bit "y * GRID_WIDTH + x" is pixel (x, y)). The
+ * active pixels are computed when the letter is created; the int views are
+ * built lazily and cached. Samples are read by several worker threads at
+ * once, so every cache is either final or volatile.
+ */
 public class LetterData {
 
-	private int[][] data;
+	private final long[] bits;
+	private final int[] activePixels;
+	private volatile int[][] data2D;
+	private volatile int[] data1D;
 	private char character;
 
+	/** Pixels are binary: any non-zero value is treated as set. */
 	public LetterData(int[][] data) {
-		this.data = data;
+		this(pack(data), '\0');
 	}
 
 	public LetterData(int[][] data, char character) {
-		this(data);
-
-		this.character = character;
+		this(pack(data), character);
 	}
 
 	public LetterData(String rawData) {
-		this.data = rawDataToData(rawData);
+		this(pack(rawData), '\0');
 	}
 	
+	/** Pixels are binary: any non-zero value is treated as set. */
 	public LetterData(int[] data) {
-		String rawData = "";
-		
-		for (int i = 0; i < data.length; i++)
-			rawData += data[i];
-		
-		this.data = rawDataToData(rawData);
+		this(pack(data), '\0');
 	}
-	
-	private int[][] rawDataToData(String rawData) {
-		int[][] data = new int[Constants.GRID_WIDTH][Constants.GRID_HEIGHT];
 
-		for (int i = 0; i < rawData.length(); i++) {
-			int posY = i / Constants.GRID_HEIGHT;
-			int posX = i % Constants.GRID_WIDTH;
+	/**
+	 * Wraps already packed pixels; the array is not copied and must not be
+	 * modified afterwards.
+	 */
+	public LetterData(long[] bits, char character) {
+		this.bits = bits;
+		this.character = character;
 
-			data[posX][posY] = Character.getNumericValue(rawData.charAt(i));
-		}
-		
-		return data;
+		activePixels = new int[countBits(bits)];
+		getActivePixels(bits, activePixels);
 	}
 
 	public LetterData(String rawData, char character) {
-		this(rawData);
+		this(pack(rawData), character);
+	}
 
-		this.character = character;
+	private static long[] pack(int[][] data) {
+		long[] bits = new long[getWordCount()];
+
+		for (int y = 0; y < Constants.GRID_HEIGHT; y++)
+			for (int x = 0; x < Constants.GRID_WIDTH; x++)
+				if (data[x][y] != 0)
+					setBit(bits, y * Constants.GRID_WIDTH + x);
+
+		return bits;
+	}
+
+	private static long[] pack(String rawData) {
+		long[] bits = new long[getWordCount()];
+
+		for (int i = 0; i < rawData.length(); i++)
+			if (Character.getNumericValue(rawData.charAt(i)) != 0)
+				setBit(bits, i);
+
+		return bits;
+	}
+
+	private static long[] pack(int[] data) {
+		long[] bits = new long[getWordCount()];
+
+		for (int i = 0; i < data.length; i++)
+			if (data[i] != 0)
+				setBit(bits, i);
+
+		return bits;
+	}
+
+	private static int countBits(long[] bits) {
+		int count = 0;
+
+		for (long word : bits)
+			count += Long.bitCount(word);
+
+		return count;
+	}
+
+	/** Number of "long" words needed to pack one grid. */
+	public static int getWordCount() {
+		return (Constants.GRID_WIDTH * Constants.GRID_HEIGHT + 63) / 64;
+	}
+
+	private static void setBit(long[] bits, int index) {
+		bits[index >> 6] |= 1L << index;
+	}
+
+	/** Returns the packed pixels. The array is shared and must not be modified. */
+	public long[] getBits() {
+		return bits;
 	}
 
+	public boolean isSet(int index) {
+		return (bits[index >> 6] & (1L << index)) != 0;
+	}
+
+	/** Returns the number of set pixels. */
+	public int getActiveCount() {
+		return activePixels.length;
+	}
+
+	/**
+	 * Returns a cached 2D view of the pixels indexed [x][y]. The array is
+	 * shared and must not be modified.
+	 */
 	public int[][] getData2D() {
+		int[][] data = data2D;
+
+		if (data == null) {
+			data = new int[Constants.GRID_WIDTH][Constants.GRID_HEIGHT];
+
+			for (int y = 0; y < Constants.GRID_HEIGHT; y++)
+				for (int x = 0; x < Constants.GRID_WIDTH; x++)
+					if (isSet(y * Constants.GRID_WIDTH + x))
+						data[x][y] = 1;
+
+			// Racing threads build equal arrays; the volatile write publishes
+			// a complete one
+			data2D = data;
+		}
+
 		return data;
 	}
 
+	/**
+	 * Returns a cached 1D view of the pixels. The array is shared and must not
+	 * be modified.
+	 */
 	public int[] getData1D() {
-		int[] data1D = new int[Constants.GRID_WIDTH * Constants.GRID_HEIGHT];
+		int[] data = data1D;
 
-		int index = 0;
-		for (int j = 0; j < Constants.GRID_HEIGHT; j++) 
-			for (int i = 0; i < Constants.GRID_WIDTH; i++) {
-				data1D[index] = data[i][j];
-				index++;
-			}
+		if (data == null) {
+			data = new int[Constants.GRID_WIDTH * Constants.GRID_HEIGHT];
 
-		return data1D;
+			for (int index : activePixels)
+				data[index] = 1;
+
+			data1D = data;
+		}
+
+		return data;
 	}
 	
+	/**
+	 * Returns the ascending 1D indices of the set pixels, in the same order as
+	 * "getData1D". The array is shared and must not be modified.
+	 */
+	public int[] getActivePixels() {
+		return activePixels;
+	}
+
+	/**
+	 * Writes the ascending indices of the set bits of packed pixels into
+	 * "destination" and returns how many were written.
+	 */
+	public static int getActivePixels(long[] bits, int[] destination) {
+		return getActivePixels(bits, 0, bits.length, destination);
+	}
+
+	/**
+	 * Same as "getActivePixels" for the "wordCount" words of a sample packed at
+	 * "offset", like the samples of a "PackedLetterFile".
+	 */
+	public static int getActivePixels(long[] bits, int offset, int wordCount,
+			int[] destination) {
+		int count = 0;
+
+		for (int w = 0; w < wordCount; w++) {
+			long word = bits[offset + w];
+
+			while (word != 0) {
+				destination[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+
+		return count;
+	}
+
 	public static int[][] colorDataToRaw(MyColor[][] colors, MyColor backgroundColor) {
 		int[][] rawData = new int[Constants.GRID_WIDTH][Constants.GRID_HEIGHT];
 		for (int x = 0; x < Constants.GRID_WIDTH; x++)
@@ -90,14 +218,19 @@ public class LetterData {
 	public static int[] data2DTo1D(int[][] data2D) {
 		int[] data1D = new int[Constants.GRID_WIDTH * Constants.GRID_HEIGHT];
 		
+		data2DTo1D(data2D, data1D);
+		
+		return data1D;
+	}
+
+	/** Writes the 1D form of "data2D" into a reusable array. */
+	public static void data2DTo1D(int[][] data2D, int[] data1D) {
 		int index = 0;
 		for (int y = 0; y < Constants.GRID_HEIGHT; y++)
 			for (int x = 0; x < Constants.GRID_WIDTH; x++) {
 				data1D[index] = data2D[x][y];
 				index++;
 			}
-		
-		return data1D;
 	}
 
 	public char getCharacter() {
@@ -108,17 +241,22 @@ public class LetterData {
 		this.character = character;
 	}
 
+	/**
+	 * Parses the samples of letter "c" with "LetterDataParser". Returns no
+	 * samples if the file cannot be read.
+	 */
 	public static LetterData[] getLetterData(char c) {
-		String[] fileContent = FileManager.readFileContent(c);
-		LetterData[] letterData = new LetterData[fileContent.length];
+		InputStream inputStream = FileManager.openLetterFile(c);
 
-		for (int i = 0; i < letterData.length; i++)
-			if (c == ' ')
-				letterData[i] = new LetterData(fileContent[i]);
-			else
-				letterData[i] = new LetterData(fileContent[i], c);
+		try {
+			return LetterDataParser.parse(inputStream, (c == ' ') ? '\0' : c);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			FileManager.close(inputStream);
+		}
 
-		return letterData;
+		return new LetterData[0];
 	}
 	
 //	public static LetterData[] getStockData() {
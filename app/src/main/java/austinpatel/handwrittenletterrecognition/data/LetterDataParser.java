@@ -0,0 +1,135 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: LetterDataParser.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Parses letter sample files byte by byte. Each sample is a run of pixel
+ * characters ended by white space or a control character; '0' is an unset
+ * pixel and any other character is set, as in "LetterData(String)". The
+ * pixels are written straight into the packed words of the sample, so no
+ * strings are built.
+ */
+public class LetterDataParser {
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int PIXEL_COUNT = Constants.GRID_WIDTH
+			* Constants.GRID_HEIGHT;
+
+	private final char character;
+	private final ArrayList<LetterData> samples = new ArrayList<LetterData>();
+	private long[] bits;
+	private long word;
+	private int index;
+
+	private LetterDataParser(char character) {
+		this.character = character;
+	}
+
+	/** Parses every sample in "inputStream". The stream is not closed. */
+	public static LetterData[] parse(InputStream inputStream, char character)
+			throws IOException {
+		LetterDataParser parser = new LetterDataParser(character);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+
+		while ((read = inputStream.read(buffer)) != -1)
+			parser.accept(buffer, 0, read);
+
+		return parser.finish();
+	}
+
+	/** Parses the remaining bytes of "buffer". */
+	public static LetterData[] parse(ByteBuffer buffer, char character) {
+		LetterDataParser parser = new LetterDataParser(character);
+
+		if (buffer.hasArray()) {
+			int from = buffer.arrayOffset() + buffer.position();
+
+			parser.accept(buffer.array(), from, from + buffer.remaining());
+			buffer.position(buffer.limit());
+		} else {
+			byte[] chunk = new byte[Math.min(BUFFER_SIZE, buffer.remaining())];
+
+			while (buffer.hasRemaining()) {
+				int length = Math.min(chunk.length, buffer.remaining());
+
+				buffer.get(chunk, 0, length);
+				parser.accept(chunk, 0, length);
+			}
+		}
+
+		return parser.finish();
+	}
+
+	/**
+	 * Parses bytes "from" to "to" of "buffer". A sample may continue from
+	 * the previous call. Bytes up to ' ' end a sample.
+	 */
+	private void accept(byte[] buffer, int from, int to) {
+		long[] bits = this.bits;
+		long word = this.word;
+		int index = this.index;
+
+		for (int i = from; i < to; i++) {
+			int b = buffer[i];
+
+			if (b <= ' ') {
+				if (bits != null) {
+					endSample(bits, word, index);
+					bits = null;
+				}
+
+				continue;
+			}
+
+			if (bits == null) {
+				bits = new long[LetterData.getWordCount()];
+				word = 0;
+				index = 0;
+			} else if (index == PIXEL_COUNT)
+				throw new IllegalArgumentException("Sample " + samples.size()
+						+ " of '" + character + "' has more than "
+						+ PIXEL_COUNT + " pixels");
+
+			// Sets the bit for any character but '0' without a branch
+			word |= (long) (((b - '0') | ('0' - b)) >>> 31) << index;
+			index++;
+
+			if ((index & 63) == 0) {
+				bits[(index - 1) >> 6] = word;
+				word = 0;
+			}
+		}
+
+		this.bits = bits;
+		this.word = word;
+		this.index = index;
+	}
+
+	private void endSample(long[] bits, long word, int index) {
+		if ((index & 63) != 0)
+			bits[index >> 6] = word;
+
+		samples.add(new LetterData(bits, character));
+	}
+
+	private LetterData[] finish() {
+		if (bits != null) {
+			endSample(bits, word, index);
+			bits = null;
+		}
+
+		return samples.toArray(new LetterData[samples.size()]);
+	}
+
+}
@@ -0,0 +1,148 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: LetterDataset.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import austinpatel.handwrittenletterrecognition.neural_network.WorkerPool;
+
+/**
+ * Process-wide registry of the letter samples. The letter files are parsed
+ * once, in parallel, the first time "get" is called unless a packed letter
+ * file was loaded first, and every user then shares the same "LetterData"
+ * objects. The samples are stored letter by letter in one array and the
+ * views over it are read only and not copied.
+ */
+public class LetterDataset {
+
+	private static LetterDataset dataset;
+
+	private final LetterData[] samples;
+	private final int[] letterStart;
+	private final List<LetterData> all;
+	private final List<List<LetterData>> letters;
+
+	private LetterDataset(LetterData[][] letterData) {
+		letterStart = new int[letterData.length + 1];
+
+		for (int i = 0; i < letterData.length; i++)
+			letterStart[i + 1] = letterStart[i] + letterData[i].length;
+
+		samples = new LetterData[letterStart[letterData.length]];
+
+		for (int i = 0; i < letterData.length; i++)
+			System.arraycopy(letterData[i], 0, samples, letterStart[i],
+					letterData[i].length);
+
+		all = Collections.unmodifiableList(Arrays.asList(samples));
+
+		List<List<LetterData>> letters = new ArrayList<List<LetterData>>();
+		for (int i = 0; i < letterData.length; i++)
+			letters.add(all.subList(letterStart[i], letterStart[i + 1]));
+
+		this.letters = Collections.unmodifiableList(letters);
+	}
+
+	/** Returns the dataset, loading it on the first call. */
+	public static synchronized LetterDataset get() {
+		if (dataset == null)
+			dataset = load();
+
+		return dataset;
+	}
+
+	/**
+	 * Loads the dataset from a packed letter file instead of the letter
+	 * files. Every sample is copied to the heap as a "LetterData", so the
+	 * file is no longer needed afterwards; this skips text parsing but is not
+	 * zero copy. Labels outside the alphabet are skipped. Must be called
+	 * before the dataset is first used.
+	 */
+	public static synchronized void load(PackedLetterFile file) {
+		if (dataset != null)
+			throw new IllegalStateException("The letter dataset is already loaded");
+
+		LetterData[][] letterData = new LetterData[Alphabet.getLength()][0];
+
+		for (int label = 0; label < file.getLabelCount(); label++) {
+			int letterIndex = Alphabet.indexOf(file.getLabel(label));
+
+			if (letterIndex < 0)
+				continue;
+
+			LetterData[] samples = new LetterData[file.getLabelSampleCount(label)];
+			for (int i = 0; i < samples.length; i++)
+				samples[i] = file.getLetterData(file.getLabelStart(label) + i);
+
+			letterData[letterIndex] = samples;
+		}
+
+		dataset = new LetterDataset(letterData);
+	}
+
+	/** Parses every letter file on the default worker pool. */
+	private static LetterDataset load() {
+		List<Callable<LetterData[]>> parsers = new ArrayList<Callable<LetterData[]>>();
+
+		for (final char c : Alphabet.getAlphabet().toCharArray())
+			parsers.add(new Callable<LetterData[]>() {
+				@Override
+				public LetterData[] call() {
+					return LetterData.getLetterData(c);
+				}
+			});
+
+		LetterData[][] letterData = new LetterData[parsers.size()][];
+
+		try {
+			List<Future<LetterData[]>> results = WorkerPool.getDefault()
+					.invokeAll(parsers);
+
+			for (int i = 0; i < letterData.length; i++)
+				letterData[i] = results.get(i).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted loading letters", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Could not load letters",
+					e.getCause());
+		}
+
+		return new LetterDataset(letterData);
+	}
+
+	/** Returns the samples of every letter, in alphabet order. */
+	public List<LetterData> getAll() {
+		return all;
+	}
+
+	/** Returns the samples of the letter at "letterIndex". */
+	public List<LetterData> getLetter(int letterIndex) {
+		return letters.get(letterIndex);
+	}
+
+	/** Returns the index in "getAll" of the first sample of a letter. */
+	public int getLetterStart(int letterIndex) {
+		return letterStart[letterIndex];
+	}
+
+	public int getLetterCount() {
+		return letters.size();
+	}
+
+	public int size() {
+		return samples.length;
+	}
+
+}
@@ -0,0 +1,298 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: PackedLetterFile.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary letter dataset, memory-mapped read only. All values are little
+ * endian:
+ *
+ * <pre>
+ * int  magic            "LTRB"
+ * int  version
+ * int  width, height    grid size
+ * int  wordsPerSample   "long" words per sample
+ * int  labelCount
+ * int  labels[labelCount]   the character of each label
+ * int  counts[labelCount]   samples per label
+ * long samples[sum(counts)][wordsPerSample]
+ * </pre>
+ *
+ * The samples are stored label by label, packed like "LetterData": bit
+ * "y * width + x" is pixel (x, y). The header is a multiple of 8 bytes, so
+ * the sample words are aligned. Samples are read straight from the mapping;
+ * only "getLetterData" copies.
+ */
+public class PackedLetterFile {
+
+	public static final int MAGIC = 'L' | 'T' << 8 | 'R' << 16 | 'B' << 24;
+	public static final int VERSION = 1;
+	private static final int HEADER_INTS = 6;
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	private final Header header;
+	private final LongBuffer words;
+
+	private PackedLetterFile(ByteBuffer buffer) throws IOException {
+		header = Header.read(buffer);
+
+		int sampleCount = header.getSampleCount();
+		if (buffer.remaining() < (long) sampleCount * header.wordsPerSample * 8)
+			throw new IOException("Truncated packed letter file: "
+					+ sampleCount + " samples expected");
+
+		words = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+	}
+
+	/** The header of a packed letter file. */
+	static final class Header {
+
+		/** Bytes before the label table. */
+		static final int FIXED_SIZE = HEADER_INTS * 4;
+
+		final char[] labels;
+		final int[] labelStart;
+		final int wordsPerSample;
+
+		private Header(char[] labels, int[] labelStart, int wordsPerSample) {
+			this.labels = labels;
+			this.labelStart = labelStart;
+			this.wordsPerSample = wordsPerSample;
+		}
+
+		/**
+		 * Reads and validates the header at the start of "buffer", leaving
+		 * the buffer little endian and positioned at the first sample.
+		 */
+		static Header read(ByteBuffer buffer) throws IOException {
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.remaining() < FIXED_SIZE || buffer.getInt() != MAGIC)
+				throw new IOException("Not a packed letter file");
+
+			int version = buffer.getInt();
+			if (version < 1 || version > VERSION)
+				throw new IOException("Unsupported packed letter file version "
+						+ version);
+
+			int width = buffer.getInt(), height = buffer.getInt();
+			int wordsPerSample = buffer.getInt();
+			int labelCount = buffer.getInt();
+
+			if (width != Constants.GRID_WIDTH
+					|| height != Constants.GRID_HEIGHT
+					|| wordsPerSample != LetterData.getWordCount())
+				throw new IOException("Packed letter file grid is " + width
+						+ "x" + height + ", expected " + Constants.GRID_WIDTH
+						+ "x" + Constants.GRID_HEIGHT);
+
+			if (labelCount < 0 || buffer.remaining() < labelCount * 8L)
+				throw new IOException("Truncated packed letter file header");
+
+			char[] labels = new char[labelCount];
+			int[] labelStart = new int[labelCount + 1];
+
+			for (int i = 0; i < labelCount; i++)
+				labels[i] = (char) buffer.getInt();
+
+			for (int i = 0; i < labelCount; i++) {
+				int count = buffer.getInt();
+
+				if (count < 0 || labelStart[i] + (long) count > Integer.MAX_VALUE)
+					throw new IOException("Invalid sample count " + count
+							+ " for label " + labels[i]);
+
+				labelStart[i + 1] = labelStart[i] + count;
+			}
+
+			return new Header(labels, labelStart, wordsPerSample);
+		}
+
+		/** Returns the header size in bytes for "labelCount" labels. */
+		static int getSize(int labelCount) {
+			return FIXED_SIZE + labelCount * 8;
+		}
+
+		int getSize() {
+			return getSize(labels.length);
+		}
+
+		int getSampleCount() {
+			return labelStart[labels.length];
+		}
+
+		/** Returns the label of "sample" by binary search. */
+		int getLabel(int sample) {
+			int low = 0, high = labels.length - 1;
+
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+
+				if (labelStart[middle] <= sample)
+					low = middle;
+				else
+					high = middle - 1;
+			}
+
+			return low;
+		}
+
+	}
+
+	/**
+	 * Maps "file" into memory and reads its header. The samples are paged in
+	 * by the operating system as they are read.
+	 */
+	public static PackedLetterFile map(File file) throws IOException {
+		FileInputStream inputStream = new FileInputStream(file);
+
+		try {
+			FileChannel channel = inputStream.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size());
+
+			return new PackedLetterFile(buffer);
+		} finally {
+			// The mapping stays valid after the channel is closed
+			FileManager.close(inputStream);
+		}
+	}
+
+	/** Reads a packed letter file that is already in memory. */
+	public static PackedLetterFile wrap(ByteBuffer buffer) throws IOException {
+		return new PackedLetterFile(buffer.duplicate());
+	}
+
+	/**
+	 * Writes "samples" to "file"; "samples[i]" are the samples of
+	 * "labels[i]".
+	 */
+	public static void write(File file, char[] labels, LetterData[][] samples)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(
+				ByteOrder.LITTLE_ENDIAN);
+		FileOutputStream outputStream = new FileOutputStream(file);
+
+		try {
+			FileChannel channel = outputStream.getChannel();
+
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(Constants.GRID_WIDTH)
+					.putInt(Constants.GRID_HEIGHT)
+					.putInt(LetterData.getWordCount()).putInt(labels.length);
+
+			for (char label : labels)
+				buffer.putInt(label);
+
+			for (LetterData[] letterData : samples)
+				buffer.putInt(letterData.length);
+
+			for (LetterData[] letterData : samples)
+				for (LetterData sample : letterData) {
+					if (buffer.remaining() < LetterData.getWordCount() * 8)
+						flush(channel, buffer);
+
+					for (long word : sample.getBits())
+						buffer.putLong(word);
+				}
+
+			flush(channel, buffer);
+		} finally {
+			FileManager.close(outputStream);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer)
+			throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+
+		buffer.clear();
+	}
+
+	public int getSampleCount() {
+		return header.getSampleCount();
+	}
+
+	public int getLabelCount() {
+		return header.labels.length;
+	}
+
+	public char getLabel(int label) {
+		return header.labels[label];
+	}
+
+	/** Returns the index of the first sample of "label". */
+	public int getLabelStart(int label) {
+		return header.labelStart[label];
+	}
+
+	public int getLabelSampleCount(int label) {
+		return header.labelStart[label + 1] - header.labelStart[label];
+	}
+
+	public char getCharacter(int sample) {
+		return header.labels[header.getLabel(sample)];
+	}
+
+	/** Returns word "word" of the packed pixels of "sample". */
+	public long getWord(int sample, int word) {
+		return words.get(sample * header.wordsPerSample + word);
+	}
+
+	public boolean isSet(int sample, int pixel) {
+		return (getWord(sample, pixel >> 6) & (1L << pixel)) != 0;
+	}
+
+	/** Copies the packed pixels of "sample" into "destination". */
+	public void getBits(int sample, long[] destination) {
+		int offset = sample * header.wordsPerSample;
+
+		for (int w = 0; w < header.wordsPerSample; w++)
+			destination[w] = words.get(offset + w);
+	}
+
+	/**
+	 * Writes the ascending indices of the set pixels of "sample" into
+	 * "destination" and returns how many were written.
+	 */
+	public int getActivePixels(int sample, int[] destination) {
+		int offset = sample * header.wordsPerSample;
+		int count = 0;
+
+		for (int w = 0; w < header.wordsPerSample; w++) {
+			long word = words.get(offset + w);
+
+			while (word != 0) {
+				destination[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+
+		return count;
+	}
+
+	/** Returns a "LetterData" with a copy of the pixels of "sample". */
+	public LetterData getLetterData(int sample) {
+		long[] bits = new long[header.wordsPerSample];
+		getBits(sample, bits);
+
+		return new LetterData(bits, getCharacter(sample));
+	}
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: PackedLetterReader.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.data;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads runs of samples from a "PackedLetterFile" with positional reads
+ * instead of mapping it, so a file of any size is read with memory bounded
+ * by the runs asked for. A reader must be used by one thread at a time.
+ */
+public class PackedLetterReader implements Closeable {
+
+	private final FileInputStream inputStream;
+	private final FileChannel channel;
+	private final PackedLetterFile.Header header;
+	private ByteBuffer buffer;
+
+	public PackedLetterReader(File file) throws IOException {
+		inputStream = new FileInputStream(file);
+		channel = inputStream.getChannel();
+
+		try {
+			ByteBuffer fixed = ByteBuffer.allocate(
+					PackedLetterFile.Header.FIXED_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+			readFully(fixed, 0);
+
+			// Check the magic and the version before trusting the label count,
+			// the last int of the fixed part, to size the header
+			if (fixed.getInt(0) != PackedLetterFile.MAGIC)
+				throw new IOException("Not a packed letter file");
+
+			int version = fixed.getInt(4);
+			if (version < 1 || version > PackedLetterFile.VERSION)
+				throw new IOException("Unsupported packed letter file version "
+						+ version);
+
+			int labelCount = fixed.getInt(PackedLetterFile.Header.FIXED_SIZE - 4);
+			if (labelCount < 0
+					|| labelCount > (channel.size() - PackedLetterFile.Header.FIXED_SIZE) / 8)
+				throw new IOException("Truncated packed letter file header");
+
+			ByteBuffer headerBuffer = ByteBuffer
+					.allocate(PackedLetterFile.Header.getSize(labelCount));
+			readFully(headerBuffer, 0);
+			header = PackedLetterFile.Header.read(headerBuffer);
+
+			if (channel.size() < header.getSize() + (long) getSampleCount()
+					* header.wordsPerSample * 8)
+				throw new IOException("Truncated packed letter file: "
+						+ getSampleCount() + " samples expected");
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the packed pixels of "count" samples starting at "first" into
+	 * "words", one sample every "getWordsPerSample" words, and their
+	 * characters into "characters".
+	 */
+	public void read(int first, int count, long[] words, char[] characters)
+			throws IOException {
+		int wordsPerSample = header.wordsPerSample;
+		int size = count * wordsPerSample * 8;
+
+		if (buffer == null || buffer.capacity() < size)
+			buffer = ByteBuffer.allocateDirect(size).order(
+					ByteOrder.LITTLE_ENDIAN);
+
+		buffer.clear().limit(size);
+		readFully(buffer, header.getSize() + (long) first * wordsPerSample * 8);
+
+		buffer.asLongBuffer().get(words, 0, count * wordsPerSample);
+
+		int label = header.getLabel(first);
+		for (int s = 0; s < count; s++) {
+			while (first + s >= header.labelStart[label + 1])
+				label++;
+
+			characters[s] = header.labels[label];
+		}
+	}
+
+	/** Fills "target" from "position" on and flips it for reading. */
+	private void readFully(ByteBuffer target, long position) throws IOException {
+		while (target.hasRemaining()) {
+			int read = channel.read(target, position);
+
+			if (read < 0)
+				throw new IOException("Unexpected end of packed letter file");
+
+			position += read;
+		}
+
+		target.flip();
+	}
+
+	public int getSampleCount() {
+		return header.getSampleCount();
+	}
+
+	public int getWordsPerSample() {
+		return header.wordsPerSample;
+	}
+
+	@Override
+	public void close() {
+		FileManager.close(inputStream);
+	}
+
+}
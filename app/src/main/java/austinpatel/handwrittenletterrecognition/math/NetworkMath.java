@@ -1,4 +1,3 @@
-
 /**
  * Author: Austin Patel
  * Project: Handwritten Recognition
@@ -8,28 +7,142 @@
 
 package austinpatel.handwrittenletterrecognition.math;
 
-/**Performs mathematical calculations for the neural network.*/
+/**
+ * Performs mathematical calculations for the neural network. The sigmoid
+ * accuracy is selected with "setSigmoidMode". Every mode is non-decreasing,
+ * but the approximations saturate for large |x|, so saturated outputs can
+ * tie; take labels from "classify" or "classifyActive", which compare the
+ * weighted sums.
+ */
 public class NetworkMath {
 
+	/** The table covers [-TABLE_RANGE, TABLE_RANGE] with TABLE_STEPS per unit. */
+	private static final int TABLE_RANGE = 16, TABLE_STEPS = 64;
+	private static final double[] SIGMOID_TABLE = createSigmoidTable();
+
+	/** Beyond this |x / 2| the rational tanh is rounded to +-1. */
+	private static final double RATIONAL_LIMIT = 4.97;
+
+	private static volatile SigmoidMode sigmoidMode = SigmoidMode.EXACT;
+
 	public NetworkMath() {
 		
 	}
+
+	public static void setSigmoidMode(SigmoidMode sigmoidMode) {
+		NetworkMath.sigmoidMode = sigmoidMode;
+	}
+
+	public static SigmoidMode getSigmoidMode() {
+		return sigmoidMode;
+	}
 	
 	public static double sigmoid(double input) {
+		SigmoidMode mode = sigmoidMode;
+
+		if (mode == SigmoidMode.EXACT)
+			return sigmoidExact(input);
+		else if (mode == SigmoidMode.TABLE)
+			return sigmoidTable(input);
+		else
+			return sigmoidRational(input);
+	}
+
+	/** Applies the sigmoid to the first "count" inputs. */
+	public static void sigmoid(double[] inputs, double[] outputs, int count) {
+		SigmoidMode mode = sigmoidMode;
+
+		if (mode == SigmoidMode.EXACT)
+			for (int i = 0; i < count; i++)
+				outputs[i] = sigmoidExact(inputs[i]);
+		else if (mode == SigmoidMode.TABLE)
+			for (int i = 0; i < count; i++)
+				outputs[i] = sigmoidTable(inputs[i]);
+		else
+			for (int i = 0; i < count; i++)
+				outputs[i] = sigmoidRational(inputs[i]);
+	}
+
+	public static double sigmoidExact(double input) {
 		return 1 / (1 + Math.exp(-input));
-	} 
+	}
+
+	public static double sigmoidTable(double input) {
+		double position = (input + TABLE_RANGE) * TABLE_STEPS;
+
+		if (position <= 0)
+			return SIGMOID_TABLE[0];
+
+		if (position >= SIGMOID_TABLE.length - 1)
+			return SIGMOID_TABLE[SIGMOID_TABLE.length - 1];
+
+		int index = (int) position;
+		double fraction = position - index;
+
+		return SIGMOID_TABLE[index]
+				+ (SIGMOID_TABLE[index + 1] - SIGMOID_TABLE[index]) * fraction;
+	}
+
+	/** Uses sigmoid(x) = (1 + tanh(x / 2)) / 2. */
+	public static double sigmoidRational(double input) {
+		double y = input * 0.5;
+
+		if (y >= RATIONAL_LIMIT)
+			return 1;
+
+		if (y <= -RATIONAL_LIMIT)
+			return 0;
+
+		double y2 = y * y;
+		double tanh = y * (135135 + y2 * (17325 + y2 * (378 + y2)))
+				/ (135135 + y2 * (62370 + y2 * (3150 + 28 * y2)));
+
+		return 0.5 + 0.5 * tanh;
+	}
+
+	private static double[] createSigmoidTable() {
+		double[] table = new double[2 * TABLE_RANGE * TABLE_STEPS + 1];
+
+		for (int i = 0; i < table.length; i++)
+			table[i] = sigmoidExact((double) i / TABLE_STEPS - TABLE_RANGE);
+
+		return table;
+	}
 	
+	/** Derivative of the sigmoid at "input". */
 	public static double derrivativeSigmoid(double input) {
-		return Math.exp(input) / (Math.pow(Math.exp(input + 1), 2));
+		return derivativeFromOutput(sigmoid(input));
+	}
+
+	/** Derivative of the sigmoid given its output, s * (1 - s). */
+	public static double derivativeFromOutput(double output) {
+		return output * (1 - output);
 	}
 	
 	public static double cost(double[] experimental, int[] actual) {
 		double variance2 = 0;
 		
-		for (int i = 0; i < experimental.length; i++)
-			variance2 += Math.pow(actual[i] - experimental[i], 2);
+		for (int i = 0; i < experimental.length; i++) {
+			double difference = actual[i] - experimental[i];
+			variance2 += difference * difference;
+		}
 		
 		return variance2 / (experimental.length);
 	}
 
+	/**
+	 * Cost for an expected result that is 1 at "actualIndex" and 0
+	 * everywhere else.
+	 */
+	public static double cost(double[] experimental, int actualIndex) {
+		double variance2 = 0;
+
+		for (int i = 0; i < experimental.length; i++) {
+			double difference = ((i == actualIndex) ? 1 : 0) - experimental[i];
+			variance2 += difference * difference;
+		}
+
+		return variance2 / (experimental.length);
+	}
+
 }
@@ -0,0 +1,66 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: RandomService.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.math;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out "RandomStream"s derived from one run seed. A stream is named by a
+ * namespace and an index, so the same work gets the same numbers on every
+ * run with the same seed, no matter which thread does it. Streams are not
+ * shared, so threads never contend for a generator.
+ */
+public class RandomService {
+
+	/** Namespaces of the streams used by the project. */
+	public static final long NEURON_STREAM = 1, SHUFFLE_STREAM = 2,
+			GENOME_STREAM = 3, THREAD_STREAM = 4, STREAMING_STREAM = 5;
+
+	private static volatile long seed = RandomStream.mix(System.nanoTime());
+	private static final AtomicLong threadCount = new AtomicLong();
+
+	private static final ThreadLocal<RandomStream> threadStreams = new ThreadLocal<RandomStream>() {
+		@Override
+		protected RandomStream initialValue() {
+			return stream(THREAD_STREAM, threadCount.getAndIncrement());
+		}
+	};
+
+	public RandomService() {
+
+	}
+
+	/**
+	 * Sets the run seed. Streams created afterwards are reproducible; streams
+	 * that already exist are unaffected.
+	 */
+	public static void setSeed(long seed) {
+		RandomService.seed = seed;
+	}
+
+	public static long getSeed() {
+		return seed;
+	}
+
+	/** Returns a new stream for work "index" in "namespace". */
+	public static RandomStream stream(long namespace, long index) {
+		long key = RandomStream.mix(seed ^ RandomStream.mix(namespace));
+
+		return new RandomStream(RandomStream.mix(key + index));
+	}
+
+	/**
+	 * Returns the calling thread's stream for work that has no identity of
+	 * its own. Its values depend on which thread asks first, so it is not
+	 * reproducible across runs with several threads.
+	 */
+	public static RandomStream current() {
+		return threadStreams.get();
+	}
+
+}
@@ -0,0 +1,66 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: RandomStream.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.math;
+
+/**
+ * Fast, unsynchronized SplitMix64 pseudo random generator. A stream must
+ * only be used by one thread at a time; give each worker its own stream with
+ * "RandomService.stream" or "split".
+ */
+public class RandomStream {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private long state;
+
+	public RandomStream(long seed) {
+		state = seed;
+	}
+
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+
+		return mix(state);
+	}
+
+	/** Returns a uniformly distributed value in [0, 1). */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/** Returns a uniformly distributed value in [0, bound). */
+	public int nextInt(int bound) {
+		return (int) (((nextLong() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Fills "length" values of "destination" starting at "offset" with
+	 * uniformly distributed values in [min, max).
+	 */
+	public void fill(double[] destination, int offset, int length,
+			double min, double max) {
+		double range = max - min;
+
+		for (int i = offset; i < offset + length; i++)
+			destination[i] = min + nextDouble() * range;
+	}
+
+	/** Returns a new stream whose values are independent of this one's. */
+	public RandomStream split() {
+		return new RandomStream(mix(nextLong() ^ GOLDEN_GAMMA));
+	}
+
+	/** The SplitMix64 finalizer. */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -0,0 +1,28 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: SigmoidMode.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.math;
+
+/** Accuracy levels for the sigmoid activation in "NetworkMath". */
+public enum SigmoidMode {
+
+	/** Uses "Math.exp". */
+	EXACT,
+
+	/**
+	 * Linearly interpolates a precomputed table. Absolute error is below 3e-6
+	 * everywhere.
+	 */
+	TABLE,
+
+	/**
+	 * Uses a [7/6] Pade approximation of tanh with no table. Absolute error is
+	 * below 5e-5 everywhere.
+	 */
+	RATIONAL
+
+}
@@ -24,6 +24,22 @@ public class BackpropagationAlgorithm extends LearningMethod {
 		return error * input * learningRate;
 	}
 	
+	@Override
+	public void learnRow(double error, int[] inputs, double[] weights,
+			int offset, int inputCount, int neuronId) {
+		for (int i = 0; i < inputCount; i++)
+			weights[offset + i] += error * inputs[i] * learningRate;
+	}
+
+	@Override
+	public void applyBatch(double[] weights, double[] gradients,
+			int neuronCount, int inputCount, int batchSize) {
+		double rate = learningRate / batchSize;
+
+		for (int k = 0; k < neuronCount * inputCount; k++)
+			weights[k] += gradients[k] * rate;
+	}
+	
 	public void setLearningRate(double learningRate) {
 		this.learningRate = learningRate;
 	}
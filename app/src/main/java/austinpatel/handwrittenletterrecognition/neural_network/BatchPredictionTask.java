@@ -0,0 +1,85 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: BatchPredictionTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.util.concurrent.RecursiveAction;
+
+import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.math.NetworkMath;
+
+/**
+ * Fork/join task that classifies a range of samples. Ranges are split until
+ * they are at most "SPLIT_SIZE" samples; each leaf then works through blocks
+ * of "BLOCK_SIZE" samples with the rows as the outer loop, so a row of
+ * weights is reused for the whole block while it is in cache.
+ */
+@SuppressWarnings("serial")
+class BatchPredictionTask extends RecursiveAction {
+
+	private static final int SPLIT_SIZE = 128, BLOCK_SIZE = 16;
+
+	private final WeightMatrix weightMatrix;
+	private final LetterData[] samples;
+	private final int from, to;
+	private final int[] labels;
+	private final double[] outputs;
+
+	BatchPredictionTask(WeightMatrix weightMatrix, LetterData[] samples,
+			int from, int to, int[] labels, double[] outputs) {
+		this.weightMatrix = weightMatrix;
+		this.samples = samples;
+		this.from = from;
+		this.to = to;
+		this.labels = labels;
+		this.outputs = outputs;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > SPLIT_SIZE) {
+			int middle = (from + to) >>> 1;
+
+			invokeAll(
+					new BatchPredictionTask(weightMatrix, samples, from,
+							middle, labels, outputs),
+					new BatchPredictionTask(weightMatrix, samples, middle, to,
+							labels, outputs));
+			return;
+		}
+
+		int rowCount = weightMatrix.getRowCount();
+		int[][] activePixels = new int[BLOCK_SIZE][];
+		double[] sums = new double[BLOCK_SIZE * rowCount];
+
+		for (int start = from; start < to; start += BLOCK_SIZE) {
+			int count = Math.min(BLOCK_SIZE, to - start);
+
+			for (int s = 0; s < count; s++)
+				activePixels[s] = samples[start + s].getActivePixels();
+
+			weightMatrix.multiplyActiveBlock(activePixels, count, sums);
+
+			for (int s = 0; s < count; s++) {
+				int offset = s * rowCount;
+				int best = 0;
+
+				for (int row = 1; row < rowCount; row++)
+					if (sums[offset + row] > sums[offset + best])
+						best = row;
+
+				labels[start + s] = best;
+
+				if (outputs != null)
+					for (int row = 0; row < rowCount; row++)
+						outputs[(start + s) * rowCount + row] = NetworkMath
+								.sigmoid(sums[offset + row]);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: EpochScheduler.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.util.ArrayList;
+
+import austinpatel.handwrittenletterrecognition.math.RandomService;
+import austinpatel.handwrittenletterrecognition.math.RandomStream;
+
+/**
+ * Hands out the indices of the training samples epoch by epoch. Every epoch
+ * visits each sample once, in an order given by shuffling one index
+ * permutation in place, so no sample data is copied. The order of epoch "e"
+ * comes from the stream of "e" in "RandomService.SHUFFLE_STREAM" and is the
+ * same on every run with the same seed.
+ *
+ * A budget of epochs, which may be fractional, and of wall-clock time limits
+ * how many indices are handed out. A new budget continues from the current
+ * position, so several budgets in a row see the same order as one long one.
+ */
+public class EpochScheduler {
+
+	/** Receives the epoch boundaries. */
+	public interface EpochListener {
+
+		void onEpochStart(int epoch);
+
+		void onEpochEnd(int epoch);
+
+	}
+
+	private final int[] permutation;
+	private final ArrayList<EpochListener> listeners = new ArrayList<EpochListener>();
+	private int epoch = -1, position;
+	private long remaining, deadline;
+
+	/** Schedules "sampleCount" samples with no budget yet. */
+	public EpochScheduler(int sampleCount) {
+		if (sampleCount < 1)
+			throw new IllegalArgumentException("No samples to schedule");
+
+		permutation = new int[sampleCount];
+		for (int i = 0; i < sampleCount; i++)
+			permutation[i] = i;
+
+		position = sampleCount;
+	}
+
+	/**
+	 * Starts a budget of "epochs" epochs, rounded to whole samples, ending
+	 * early after "millis" milliseconds. A time of 0 sets no time limit.
+	 */
+	public synchronized void setBudget(double epochs, long millis) {
+		if (epochs < 0 || millis < 0)
+			throw new IllegalArgumentException("Invalid budget: " + epochs
+					+ " epochs, " + millis + " ms");
+
+		remaining = Math.round(epochs * permutation.length);
+		deadline = (millis == 0) ? Long.MAX_VALUE : System.currentTimeMillis()
+				+ millis;
+	}
+
+	/** Returns how many samples the budget still allows. */
+	public synchronized long getRemaining() {
+		return (System.currentTimeMillis() >= deadline) ? 0 : remaining;
+	}
+
+	/** Returns the next sample index, or -1 once the budget is spent. */
+	public synchronized int next() {
+		if (getRemaining() == 0)
+			return -1;
+
+		if (position == permutation.length)
+			startEpoch();
+
+		remaining--;
+		int sample = permutation[position++];
+
+		if (position == permutation.length)
+			for (EpochListener listener : listeners)
+				listener.onEpochEnd(epoch);
+
+		return sample;
+	}
+
+	/**
+	 * Writes up to "count" sample indices into "destination" and returns how
+	 * many were written, 0 once the budget is spent. A batch may cross an
+	 * epoch boundary.
+	 */
+	public synchronized int next(int[] destination, int count) {
+		int written = 0;
+
+		while (written < count) {
+			int sample = next();
+
+			if (sample < 0)
+				break;
+
+			destination[written++] = sample;
+		}
+
+		return written;
+	}
+
+	/** Shuffles the permutation with Fisher-Yates for the next epoch. */
+	private void startEpoch() {
+		epoch++;
+		position = 0;
+
+		RandomStream random = RandomService.stream(
+				RandomService.SHUFFLE_STREAM, epoch);
+
+		for (int i = permutation.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = permutation[i];
+
+			permutation[i] = permutation[j];
+			permutation[j] = swap;
+		}
+
+		for (EpochListener listener : listeners)
+			listener.onEpochStart(epoch);
+	}
+
+	/**
+	 * Adds a listener. It is called on the thread that crosses the boundary,
+	 * while the scheduler is locked.
+	 */
+	public synchronized void addListener(EpochListener listener) {
+		listeners.add(listener);
+	}
+
+	public synchronized void removeListener(EpochListener listener) {
+		listeners.remove(listener);
+	}
+
+	/** Returns the current epoch, -1 before the first sample. */
+	public synchronized int getEpoch() {
+		return epoch;
+	}
+
+	public int getSampleCount() {
+		return permutation.length;
+	}
+
+}
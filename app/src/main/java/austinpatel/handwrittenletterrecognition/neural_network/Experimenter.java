@@ -8,32 +8,38 @@
 
 package austinpatel.handwrittenletterrecognition.neural_network;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import austinpatel.handwrittenletterrecognition.data.Alphabet;
 import austinpatel.handwrittenletterrecognition.data.Constants;
 import austinpatel.handwrittenletterrecognition.data.ExperimentalData;
 import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.data.LetterDataset;
 import austinpatel.handwrittenletterrecognition.math.NetworkMath;
 import austinpatel.handwrittenletterrecognition.neural_network.genetics.GeneticAlgorithm;
 
 /** Tests performance of the Artificial Neural Network */
 public class Experimenter {
 
-	ArrayList<ArrayList<LetterData>> individualLetterData;
+	private LetterDataset dataset;
 	private NeuralNetwork neuralNetwork;
-	private ArrayList<LetterData> experimentalData;
+	private List<LetterData> experimentalData;
+	private LetterData[] experimentalSamples;
+	private int[] labels;
+	private double[] outputs;
 
 	public Experimenter(NeuralNetwork neuralNetwork) {
 		this.neuralNetwork = neuralNetwork;
 
-		// Load letter data
-		individualLetterData = new ArrayList<ArrayList<LetterData>>();
-		for (int i = 0; i < Alphabet.getLength(); i++)
-			individualLetterData
-					.add(getExperimentalData(Alphabet.getCharacter(i)));
+		// The letter data is shared with every other user of the dataset
+		dataset = LetterDataset.get();
+		experimentalData = dataset.getAll();
+		experimentalSamples = experimentalData
+				.toArray(new LetterData[experimentalData.size()]);
 
-		experimentalData = Experimenter.getExperimentalData();
+		labels = new int[experimentalSamples.length];
+		outputs = new double[experimentalSamples.length
+				* neuralNetwork.getOutputCount()];
 	}
 
 	public static void main(String[] args) {
@@ -100,39 +106,21 @@ public class Experimenter {
 				+ (int) (experimentalData.getAccuracy() * 100) + '%');
 	}
 
-	public static ArrayList<LetterData> getExperimentalData() {
-		ArrayList<LetterData> experimentalData = new ArrayList<LetterData>();
-
-		for (char c : Alphabet.getAlphabet().toCharArray()) {
-			String filePath = Constants.RESOURCES_PATH
-					+ Constants.EXPERIMENTAL_LETTERS_FOLDER + "\\" + c + ".txt";
-			LetterData[] currentLetterData = LetterData.getLetterData(c);
-
-			for (LetterData letterData : currentLetterData)
-				experimentalData.add(letterData);
-		}
-
-		return experimentalData;
+	/** Returns the shared experimental samples of every letter. */
+	public static List<LetterData> getExperimentalData() {
+		return LetterDataset.get().getAll();
 	}
 
-	private ArrayList<LetterData> getExperimentalData(char letter) {
-		ArrayList<LetterData> experimentalData = new ArrayList<LetterData>();
-
-		String filePath = Constants.RESOURCES_PATH
-				+ Constants.EXPERIMENTAL_LETTERS_FOLDER + "\\" + letter
-				+ ".txt";
-
-		LetterData[] currentLetterData = LetterData.getLetterData(letter);
-
-		for (LetterData letterData : currentLetterData)
-			experimentalData.add(letterData);
-
-		return experimentalData;
+	/** Returns the experimental samples of the letter at "letterIndex". */
+	public List<LetterData> getLetterData(int letterIndex) {
+		return dataset.getLetter(letterIndex);
 	}
 
 	/**
 	 * Tests the network with given experimental data and returns accuracy and
-	 * cost.
+	 * cost. The samples are classified in parallel with "predictBatch"; the
+	 * result buffers are reused, so it must not be called from several
+	 * threads at once.
 	 */
 	public ExperimentalData testNetwork() {
 		int numCorrect = 0;
@@ -140,34 +128,24 @@ public class Experimenter {
 		double[] costs = new double[experimentalData.size()];
 		int numberOfEach = experimentalData.size() / Alphabet.getLength();
 
-		for (int k = 0; k < experimentalData.size(); k++) {
-			LetterData letterData = experimentalData.get(k);
-
-			int[] actualValues = new int[Alphabet.getAlphabet().length()];
-
-			for (int i = 0; i < actualValues.length; i++)
-				actualValues[i] = 0;
-
-			actualValues[Alphabet.getLocation(letterData.getCharacter())] = 1;
+		int outputCount = neuralNetwork.getOutputCount();
+		double[] output = new double[outputCount];
 
-			int[] inputs = letterData.getData1D();
+		neuralNetwork.predictBatch(experimentalSamples, labels, outputs);
 
-			double[] output = neuralNetwork.getOutput(inputs);
+		for (int k = 0; k < experimentalSamples.length; k++) {
+			LetterData letterData = experimentalSamples[k];
 
-			int largestValueIndex = 0;
-			for (int i = 0; i < output.length; i++)
-				largestValueIndex = (output[i] > output[largestValueIndex]) ? i
-						: largestValueIndex;
-
-			char prediction = Alphabet.getCharacter(largestValueIndex);
+			char predicted = Alphabet.getCharacter(labels[k]);
 			char actual = letterData.getCharacter();
 
-			if (prediction == actual) {
-				letterCorrect[Alphabet.indexOf(prediction)]++;
+			if (predicted == actual) {
+				letterCorrect[Alphabet.indexOf(predicted)]++;
 				numCorrect++;
 			}
 
-			costs[k] = NetworkMath.cost(output, actualValues);
+			System.arraycopy(outputs, k * outputCount, output, 0, outputCount);
+			costs[k] = NetworkMath.cost(output, Alphabet.getLocation(actual));
 
 			// System.out.println("Prediction: " + prediction + " Actual: " +
 			// actual);
@@ -195,9 +173,13 @@ public class Experimenter {
 		return new ExperimentalData(accuracy, cost);
 	}
 
+	/**
+	 * Returns the fraction of the samples of "letter" that are classified
+	 * correctly. Does not allocate and may be called from several threads.
+	 */
 	public double testLetter(char letter) {
-		ArrayList<LetterData> experimentalData = individualLetterData
-				.get(Alphabet.getLocation(letter));
+		List<LetterData> experimentalData = dataset.getLetter(Alphabet
+				.getLocation(letter));
 
 		int numCorrect = 0;
 		int count = 0;
@@ -205,14 +187,10 @@ public class Experimenter {
 		for (LetterData data : experimentalData) {
 			count++;
 
-			double[] output = neuralNetwork.getOutput(data.getData1D());
+			int[] activePixels = data.getActivePixels();
 
-			int largestValueIndex = 0;
-			for (int i = 0; i < output.length; i++)
-				largestValueIndex = (output[i] > output[largestValueIndex]) ? i
-						: largestValueIndex;
-
-			char outputLetter = Alphabet.getCharacter(largestValueIndex);
+			char outputLetter = Alphabet.getCharacter(neuralNetwork
+					.classifyActive(activePixels, activePixels.length));
 
 			if (outputLetter == letter)
 				numCorrect++;
@@ -221,4 +199,26 @@ public class Experimenter {
 		return (double) numCorrect / count;
 	}
 
+	/**
+	 * Same as "testLetter" with the weights of the letter's neuron taken from
+	 * "weights" at "offset". The network is not modified, so candidates can
+	 * be scored from several threads.
+	 */
+	public double testLetter(char letter, double[] weights, int offset) {
+		int letterIndex = Alphabet.getLocation(letter);
+		List<LetterData> experimentalData = dataset.getLetter(letterIndex);
+
+		int numCorrect = 0;
+
+		for (LetterData data : experimentalData) {
+			int[] activePixels = data.getActivePixels();
+
+			if (neuralNetwork.classifyActive(activePixels, activePixels.length,
+					letterIndex, weights, offset) == letterIndex)
+				numCorrect++;
+		}
+
+		return (double) numCorrect / experimentalData.size();
+	}
+
 }
@@ -35,6 +35,19 @@ public class GeneticAlgorithmLearningMethod extends LearningMethod {
 		return geneticAlgorithm;
 	}
 
+	/** Weights are not changed by this learning method. */
+	@Override
+	public void learnRow(double error, int[] inputs, double[] weights,
+			int offset, int inputCount, int neuronId) {
+
+	}
+
+	@Override
+	public void applyBatch(double[] weights, double[] gradients,
+			int neuronCount, int inputCount, int batchSize) {
+
+	}
+
 	@Override
 	public String getName() {
 		return NAME;
@@ -0,0 +1,75 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: GradientBuffer.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.util.Arrays;
+
+/**
+ * Holds the gradients accumulated over a mini-batch, laid out like the
+ * "WeightMatrix", together with the scratch space needed to compute them.
+ * Each thread that accumulates gradients needs its own buffer.
+ */
+public class GradientBuffer {
+
+	private final double[] gradients;
+	private final int inputCount;
+	private int[][] activePixels;
+	private int[] activeCounts;
+	private int sampleCount;
+
+	public GradientBuffer(int outputCount, int inputCount) {
+		this.inputCount = inputCount;
+
+		gradients = new double[outputCount * inputCount];
+	}
+
+	/** Makes room for a batch of "batchSize" samples. */
+	void ensureCapacity(int batchSize) {
+		if (activeCounts != null && activeCounts.length >= batchSize)
+			return;
+
+		activePixels = new int[batchSize][inputCount];
+		activeCounts = new int[batchSize];
+	}
+
+	/** Clears the gradients and the sample count. */
+	public void clear() {
+		Arrays.fill(gradients, 0d);
+		sampleCount = 0;
+	}
+
+	/** Adds the gradients and sample count of another buffer to this one. */
+	public void add(GradientBuffer other) {
+		for (int k = 0; k < gradients.length; k++)
+			gradients[k] += other.gradients[k];
+
+		sampleCount += other.sampleCount;
+	}
+
+	void addSamples(int count) {
+		sampleCount += count;
+	}
+
+	public double[] getGradients() {
+		return gradients;
+	}
+
+	/** Returns how many samples the gradients were summed over. */
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	int[][] getActivePixels() {
+		return activePixels;
+	}
+
+	int[] getActiveCounts() {
+		return activeCounts;
+	}
+
+}
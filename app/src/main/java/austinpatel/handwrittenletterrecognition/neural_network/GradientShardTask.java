@@ -0,0 +1,68 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: GradientShardTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that accumulates the gradients of a range of shards of a
+ * mini-batch. Shard "i" covers samples [i * shardSize, (i + 1) * shardSize)
+ * and writes into its own "GradientBuffer", so no locking is needed. The
+ * samples are binary and given by their set pixels.
+ */
+@SuppressWarnings("serial")
+class GradientShardTask extends RecursiveAction {
+
+	private final NeuralNetwork neuralNetwork;
+	private final int[][] activePixels;
+	private final int[] activeCounts;
+	private final int[][] actualResults;
+	private final int count, shardSize;
+	private final GradientBuffer[] shardBuffers;
+	private final int firstShard, lastShard;
+
+	GradientShardTask(NeuralNetwork neuralNetwork, int[][] activePixels,
+			int[] activeCounts, int[][] actualResults, int count,
+			int shardSize, GradientBuffer[] shardBuffers, int firstShard,
+			int lastShard) {
+		this.neuralNetwork = neuralNetwork;
+		this.activePixels = activePixels;
+		this.activeCounts = activeCounts;
+		this.actualResults = actualResults;
+		this.count = count;
+		this.shardSize = shardSize;
+		this.shardBuffers = shardBuffers;
+		this.firstShard = firstShard;
+		this.lastShard = lastShard;
+	}
+
+	@Override
+	protected void compute() {
+		if (lastShard - firstShard == 1) {
+			int from = firstShard * shardSize;
+			GradientBuffer buffer = shardBuffers[firstShard];
+
+			buffer.clear();
+			neuralNetwork.accumulateGradients(activePixels, activeCounts,
+					actualResults, from, Math.min(shardSize, count - from),
+					buffer);
+			return;
+		}
+
+		int middle = (firstShard + lastShard) >>> 1;
+
+		invokeAll(
+				new GradientShardTask(neuralNetwork, activePixels,
+						activeCounts, actualResults, count, shardSize,
+						shardBuffers, firstShard, middle),
+				new GradientShardTask(neuralNetwork, activePixels,
+						activeCounts, actualResults, count, shardSize,
+						shardBuffers, middle, lastShard));
+	}
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: IncrementalClassifier.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+/**
+ * Classification session for a binary grid that changes one pixel at a time,
+ * such as a drawing in progress. It keeps the weighted sum of every neuron,
+ * so setting or clearing a pixel costs one weight per neuron instead of a
+ * full pass over the grid.
+ *
+ * Sums are accumulated in the order pixels are set, so they can differ from a
+ * fresh pass in the last bits. Call "recompute" after the network's weights
+ * change.
+ */
+public class IncrementalClassifier {
+
+	private final WeightMatrix weightMatrix;
+	private final double[] sums;
+	private final boolean[] pixels;
+	private int activeCount;
+
+	public IncrementalClassifier(NeuralNetwork neuralNetwork) {
+		weightMatrix = neuralNetwork.getWeightMatrix();
+
+		sums = new double[weightMatrix.getRowCount()];
+		pixels = new boolean[weightMatrix.getInputCount()];
+	}
+
+	/** Turns a pixel on. Does nothing if it is already on. */
+	public void set(int index) {
+		if (pixels[index])
+			return;
+
+		pixels[index] = true;
+		activeCount++;
+
+		addColumn(index, 1);
+	}
+
+	/** Turns a pixel off. Does nothing if it is already off. */
+	public void clear(int index) {
+		if (!pixels[index])
+			return;
+
+		pixels[index] = false;
+		activeCount--;
+
+		addColumn(index, -1);
+	}
+
+	private void addColumn(int index, int sign) {
+		double[] weights = weightMatrix.getWeights();
+		int inputCount = weightMatrix.getInputCount();
+
+		for (int row = 0, offset = index; row < sums.length; row++, offset += inputCount)
+			sums[row] += sign * weights[offset];
+	}
+
+	/** Turns every pixel off. */
+	public void reset() {
+		for (int i = 0; i < pixels.length; i++)
+			pixels[i] = false;
+
+		for (int row = 0; row < sums.length; row++)
+			sums[row] = 0d;
+
+		activeCount = 0;
+	}
+
+	/** Rebuilds the sums from the pixels that are on. */
+	public void recompute() {
+		double[] weights = weightMatrix.getWeights();
+
+		for (int row = 0, offset = 0; row < sums.length; row++, offset += pixels.length) {
+			double sum = 0d;
+
+			for (int i = 0; i < pixels.length; i++)
+				if (pixels[i])
+					sum += weights[offset + i];
+
+			sums[row] = sum;
+		}
+	}
+
+	/**
+	 * Returns the index of the neuron with the largest output; ties go to the
+	 * lower index, as in "NeuralNetwork.classify".
+	 */
+	public int classify() {
+		int best = 0;
+
+		for (int row = 1; row < sums.length; row++)
+			if (sums[row] > sums[best])
+				best = row;
+
+		return best;
+	}
+
+	public boolean isEmpty() {
+		return activeCount == 0;
+	}
+
+}
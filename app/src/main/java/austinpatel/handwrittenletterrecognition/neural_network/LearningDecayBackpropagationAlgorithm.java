@@ -37,6 +37,41 @@ public class LearningDecayBackpropagationAlgorithm extends BackpropagationAlgori
 		return super.getWeightDelta(error, input, neuronId, weightId);
 	}
 	
+	@Override
+	public void learnRow(double error, int[] inputs, double[] weights,
+			int offset, int inputCount, int neuronId) {
+		for (int i = 0; i < inputCount; i++) {
+			if (learningRate > .00001)
+				learningRate *= decay;
+
+			if (learningRate < 0)
+				learningRate = 0;
+
+			weights[offset + i] += error * inputs[i] * learningRate;
+		}
+	}
+
+	/**
+	 * Decays the learning rate once per weight for each sample of the batch,
+	 * as "batchSize" per-sample updates would.
+	 */
+	@Override
+	public void applyBatch(double[] weights, double[] gradients,
+			int neuronCount, int inputCount, int batchSize) {
+		double scale = 1d / batchSize;
+		double batchDecay = Math.pow(decay, batchSize);
+
+		for (int k = 0; k < neuronCount * inputCount; k++) {
+			if (learningRate > .00001)
+				learningRate *= batchDecay;
+
+			if (learningRate < 0)
+				learningRate = 0;
+
+			weights[k] += gradients[k] * scale * learningRate;
+		}
+	}
+	
 	@Override
 	public String getFileName() {
 		return "LD-LR" + learningRate + "DR" + decay;
@@ -12,6 +12,38 @@ package austinpatel.handwrittenletterrecognition.neural_network;
 public abstract class LearningMethod {
 		
 	public abstract double getWeightDelta(double error, int input, int neuronId, int weightId);
+
+	/**
+	 * Updates a whole row of weights for one neuron in place. The row starts
+	 * at "offset" in "weights" and is "inputCount" weights long; "inputs"
+	 * must hold at least that many values. By default "getWeightDelta" is called once per
+	 * weight; learning methods override this with a loop that needs no
+	 * virtual calls.
+	 */
+	public void learnRow(double error, int[] inputs, double[] weights,
+			int offset, int inputCount, int neuronId) {
+		for (int weightId = 0; weightId < inputCount; weightId++)
+			weights[offset + weightId] += getWeightDelta(error,
+					inputs[weightId], neuronId, weightId);
+	}
+
+	/**
+	 * Applies error gradients summed over a mini-batch of "batchSize" samples
+	 * to a row-major weight array as one step with the mean gradient. By
+	 * default "getWeightDelta" is called once for each weight with the mean
+	 * gradient as the error and an input of 1, so a learning method with state
+	 * advances it once per batch, not once per sample. Overrides document how
+	 * they differ from "batchSize" per-sample updates.
+	 */
+	public void applyBatch(double[] weights, double[] gradients,
+			int neuronCount, int inputCount, int batchSize) {
+		double scale = 1d / batchSize;
+
+		for (int neuronId = 0, k = 0; neuronId < neuronCount; neuronId++)
+			for (int weightId = 0; weightId < inputCount; weightId++, k++)
+				weights[k] += getWeightDelta(gradients[k] * scale, 1,
+						neuronId, weightId);
+	}
 	
 	public abstract String getName();
 	
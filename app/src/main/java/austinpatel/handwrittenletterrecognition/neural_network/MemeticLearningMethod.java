@@ -0,0 +1,56 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: MemeticLearningMethod.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import austinpatel.handwrittenletterrecognition.neural_network.genetics.GeneticAlgorithm;
+
+/**
+ * Genetic algorithm that every "interval" generations refines the elite
+ * chromosomes of each genome with a few passes of backpropagation, instead
+ * of running the genetic algorithm and backpropagation one after the other.
+ */
+public class MemeticLearningMethod extends GeneticAlgorithmLearningMethod {
+
+	public static final String NAME = "Memetic";
+
+	private int interval, eliteCount, steps;
+	private double learningRate;
+	private int cycle;
+
+	public MemeticLearningMethod(GeneticAlgorithm geneticAlgorithm,
+			int interval, int eliteCount, int steps, double learningRate) {
+		super(geneticAlgorithm);
+
+		this.interval = interval;
+		this.eliteCount = eliteCount;
+		this.steps = steps;
+		this.learningRate = learningRate;
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void onLearningCycleStart() {
+		super.onLearningCycleStart();
+
+		if (++cycle % interval == 0)
+			getGeneticAlgorithm().refineElites(eliteCount, steps,
+					learningRate);
+	}
+
+	@Override
+	public String getFileName() {
+		return "Memetic-" + super.getFileName() + "Interval" + interval
+				+ "Elites" + eliteCount + "Steps" + steps + "LR"
+				+ learningRate;
+	}
+
+}
@@ -43,6 +43,42 @@ public class MomentumBackpropatationAlgorithm extends BackpropagationAlgorithm {
 		return momentum[neuronId][weightId] / count[neuronId][weightId];
 	}
 	
+	@Override
+	public void learnRow(double error, int[] inputs, double[] weights,
+			int offset, int inputCount, int neuronId) {
+		double[] neuronMomentum = momentum[neuronId];
+		int[] updateCount = count[neuronId];
+
+		for (int i = 0; i < inputCount; i++) {
+			neuronMomentum[i] += error * inputs[i] * learningRate;
+			updateCount[i]++;
+
+			weights[offset + i] += neuronMomentum[i] / updateCount[i];
+		}
+	}
+
+	/**
+	 * Adds the mean gradient to the momentum once per batch, so the momentum
+	 * averages over batches rather than samples.
+	 */
+	@Override
+	public void applyBatch(double[] weights, double[] gradients,
+			int neuronCount, int inputCount, int batchSize) {
+		double rate = learningRate / batchSize;
+
+		for (int neuronId = 0, k = 0; neuronId < neuronCount; neuronId++) {
+			double[] neuronMomentum = momentum[neuronId];
+			int[] updateCount = count[neuronId];
+
+			for (int weightId = 0; weightId < inputCount; weightId++, k++) {
+				neuronMomentum[weightId] += gradients[k] * rate;
+				updateCount[weightId]++;
+
+				weights[k] += neuronMomentum[weightId] / updateCount[weightId];
+			}
+		}
+	}
+	
 	@Override
 	public String getFileName() {
 		return "MM" + learningRate;
@@ -8,34 +8,211 @@
 
 package austinpatel.handwrittenletterrecognition.neural_network;
 
+import java.util.concurrent.ForkJoinPool;
+
+import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.math.NetworkMath;
+
 /**
  * Artificial Neural Network structure with learning and prediction
- * capabilities.
+ * capabilities. All weights are kept in a single "WeightMatrix"; the
+ * "Neuron" objects are views of its rows.
  */
 public class NeuralNetwork {
 
 	private Neuron[] neurons;
+	private WeightMatrix weightMatrix;
 	private LearningMethod learningMethod;
+	private GradientBuffer gradientBuffer;
+
+	/** Set pixels of the input being scanned by "getOutput", per thread. */
+	private static final ThreadLocal<int[]> activeScratch = new ThreadLocal<int[]>();
 
 	public NeuralNetwork(LearningMethod learningMethod, int inputCount,
 			int outputCount) {
 		neurons = new Neuron[outputCount];
+		weightMatrix = new WeightMatrix(outputCount, inputCount);
 
 		this.learningMethod = learningMethod;
 
 		for (int i = 0; i < neurons.length; i++)
-			neurons[i] = new Neuron(learningMethod, inputCount, i);
+			neurons[i] = new Neuron(learningMethod, weightMatrix, i);
 	}
 
+	/** Returns the output of every neuron; see "getOutput(int[], double[])". */
 	public double[] getOutput(int[] inputs) {
 		double[] outputs = new double[neurons.length];
 
-		for (int i = 0; i < neurons.length; i++)
-			outputs[i] = neurons[i].getOutput(inputs);
+		getOutput(inputs, outputs);
+
+		return outputs;
+	}
+
+	/**
+	 * Returns the output of every neuron for a binary input given as the
+	 * ascending indices of its set pixels.
+	 */
+	public double[] getActiveOutput(int[] activePixels, int activeCount) {
+		double[] outputs = new double[neurons.length];
+
+		weightMatrix.multiplyActive(activePixels, activeCount, outputs);
+
+		NetworkMath.sigmoid(outputs, outputs, outputs.length);
 
 		return outputs;
 	}
 
+	/**
+	 * Writes the output of every neuron into "outputs". Binary inputs (every
+	 * value 0 or 1) are routed through the active pixel path, which gives
+	 * identical results while skipping the zero inputs. The set pixels are
+	 * gathered into a per-thread buffer, so nothing is allocated once the
+	 * thread has seen an input of this size.
+	 */
+	public void getOutput(int[] inputs, double[] outputs) {
+		int[] activePixels = activeScratch.get();
+
+		if (activePixels == null || activePixels.length < inputs.length) {
+			activePixels = new int[inputs.length];
+			activeScratch.set(activePixels);
+		}
+
+		int activeCount = 0;
+		boolean binary = true;
+
+		for (int i = 0; i < inputs.length && binary; i++)
+			if (inputs[i] == 1)
+				activePixels[activeCount++] = i;
+			else if (inputs[i] != 0)
+				binary = false;
+
+		if (binary)
+			weightMatrix.multiplyActive(activePixels, activeCount, outputs);
+		else
+			weightMatrix.multiply(inputs, outputs);
+
+		NetworkMath.sigmoid(outputs, outputs, neurons.length);
+	}
+
+	/**
+	 * Writes the output of every neuron for a binary input into "outputs"
+	 * without allocating.
+	 */
+	public void getActiveOutput(int[] activePixels, int activeCount,
+			double[] outputs) {
+		weightMatrix.multiplyActive(activePixels, activeCount, outputs);
+
+		NetworkMath.sigmoid(outputs, outputs, neurons.length);
+	}
+
+	/** Fills a reusable prediction with the outputs and best labels. */
+	public void predict(int[] inputs, Prediction prediction) {
+		getOutput(inputs, prediction.getScores());
+		prediction.rank();
+	}
+
+	/** Fills a reusable prediction for a binary input. */
+	public void predictActive(int[] activePixels, int activeCount,
+			Prediction prediction) {
+		getActiveOutput(activePixels, activeCount, prediction.getScores());
+		prediction.rank();
+	}
+
+	/**
+	 * Returns the index of the neuron with the largest output without any heap
+	 * allocation. The sigmoid is non-decreasing, so the weighted sums are
+	 * compared directly, which also separates sums whose outputs saturate to
+	 * the same value; ties go to the lower index.
+	 */
+	public int classify(int[] inputs) {
+		int best = 0;
+		double bestSum = weightMatrix.multiplyRow(0, inputs);
+
+		for (int row = 1; row < neurons.length; row++) {
+			double sum = weightMatrix.multiplyRow(row, inputs);
+
+			if (sum > bestSum) {
+				bestSum = sum;
+				best = row;
+			}
+		}
+
+		return best;
+	}
+
+	/** Same as "classify" for a binary input given by its set pixels. */
+	public int classifyActive(int[] activePixels, int activeCount) {
+		int best = 0;
+		double bestSum = weightMatrix.multiplyRowActive(0, activePixels,
+				activeCount);
+
+		for (int row = 1; row < neurons.length; row++) {
+			double sum = weightMatrix.multiplyRowActive(row, activePixels,
+					activeCount);
+
+			if (sum > bestSum) {
+				bestSum = sum;
+				best = row;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Same as "classifyActive" with the weights of neuron "replacedRow" taken
+	 * from "rowWeights" at "rowOffset" instead of the network. The network is
+	 * not modified, so candidate rows can be scored from several threads.
+	 */
+	public int classifyActive(int[] activePixels, int activeCount,
+			int replacedRow, double[] rowWeights, int rowOffset) {
+		int best = -1;
+		double bestSum = 0d;
+
+		for (int row = 0; row < neurons.length; row++) {
+			double sum;
+
+			if (row == replacedRow) {
+				sum = 0d;
+
+				for (int i = 0; i < activeCount; i++)
+					sum += rowWeights[rowOffset + activePixels[i]];
+			} else
+				sum = weightMatrix.multiplyRowActive(row, activePixels,
+						activeCount);
+
+			if (best < 0 || sum > bestSum) {
+				bestSum = sum;
+				best = row;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Classifies "count" samples starting at "from" in parallel. The label of
+	 * sample "from + i" is written to "labels[from + i]" and, when "outputs"
+	 * is not null, its neuron outputs to "outputs[(from + i) * outputCount]"
+	 * onwards. Labels match "classifyActive".
+	 */
+	public void predictBatch(LetterData[] samples, int from, int count,
+			int[] labels, double[] outputs, ForkJoinPool pool) {
+		pool.invoke(new BatchPredictionTask(weightMatrix, samples, from,
+				from + count, labels, outputs));
+	}
+
+	/** Classifies every sample using the default "WorkerPool". */
+	public void predictBatch(LetterData[] samples, int[] labels,
+			double[] outputs) {
+		predictBatch(samples, 0, samples.length, labels, outputs,
+				WorkerPool.getDefault());
+	}
+
+	public int getOutputCount() {
+		return neurons.length;
+	}
+
 	public void learn(int[] inputs, int[] actualResults) {
 		double[] experimentalResults = getOutput(inputs);
 
@@ -43,10 +220,145 @@ public class NeuralNetwork {
 			neurons[i].learn(actualResults[i] - experimentalResults[i], inputs);
 	}
 
+	/**
+	 * Trains on a mini-batch of samples. The forward passes of the batch are
+	 * computed together, the gradients are accumulated into a flat buffer with
+	 * the layout of the "WeightMatrix" and the learning method applies them in
+	 * one step.
+	 */
+	public void learnBatch(int[][] inputs, int[][] actualResults, int from,
+			int count) {
+		GradientBuffer buffer = getGradientBuffer();
+
+		buffer.clear();
+		accumulateGradients(inputs, actualResults, from, count, buffer);
+		applyGradients(buffer);
+	}
+
+	/**
+	 * Same as "learnBatch" for binary samples, each given by its set pixels
+	 * like "LetterData.getActivePixels".
+	 */
+	public void learnBatch(int[][] activePixels, int[] activeCounts,
+			int[][] actualResults, int from, int count) {
+		GradientBuffer buffer = getGradientBuffer();
+
+		buffer.clear();
+		accumulateGradients(activePixels, activeCounts, actualResults, from,
+				count, buffer);
+		applyGradients(buffer);
+	}
+
+	private GradientBuffer getGradientBuffer() {
+		if (gradientBuffer == null)
+			gradientBuffer = new GradientBuffer(neurons.length,
+					weightMatrix.getInputCount());
+
+		return gradientBuffer;
+	}
+
+	/** Applies the gradients of a buffer with the network's learning method. */
+	public void applyGradients(GradientBuffer gradientBuffer) {
+		if (gradientBuffer.getSampleCount() == 0)
+			return;
+
+		learningMethod.applyBatch(weightMatrix.getWeights(),
+				gradientBuffer.getGradients(), neurons.length,
+				weightMatrix.getInputCount(), gradientBuffer.getSampleCount());
+	}
+
+	/**
+	 * Adds the error gradients of a range of samples to a buffer without
+	 * changing the weights. Binary samples only visit their set pixels.
+	 */
+	public void accumulateGradients(int[][] inputs, int[][] actualResults,
+			int from, int count, GradientBuffer gradientBuffer) {
+		int inputCount = weightMatrix.getInputCount();
+
+		gradientBuffer.ensureCapacity(count);
+
+		int[][] activePixels = gradientBuffer.getActivePixels();
+		int[] activeCounts = gradientBuffer.getActiveCounts();
+
+		// A count of -1 marks a sample that is not binary
+		for (int s = 0; s < count; s++) {
+			int[] sampleInputs = inputs[from + s];
+			int[] sampleActive = activePixels[s];
+			int activeCount = 0;
+
+			for (int i = 0; i < inputCount && activeCount >= 0; i++)
+				if (sampleInputs[i] == 1)
+					sampleActive[activeCount++] = i;
+				else if (sampleInputs[i] != 0)
+					activeCount = -1;
+
+			activeCounts[s] = activeCount;
+		}
+
+		accumulateGradients(inputs, activePixels, activeCounts, from, 0,
+				actualResults, count, gradientBuffer);
+	}
+
+	/**
+	 * Same as "accumulateGradients" for binary samples, each given by its set
+	 * pixels, so they are not scanned again. Sample "from + i" uses
+	 * "activePixels", "activeCounts" and "actualResults" at "from + i".
+	 */
+	public void accumulateGradients(int[][] activePixels, int[] activeCounts,
+			int[][] actualResults, int from, int count,
+			GradientBuffer gradientBuffer) {
+		accumulateGradients(null, activePixels, activeCounts, from, from,
+				actualResults, count, gradientBuffer);
+	}
+
+	/**
+	 * Accumulates sample "s" from "inputs[from + s]", or from
+	 * "activePixels[activeFrom + s]" when its active count is not -1.
+	 */
+	private void accumulateGradients(int[][] inputs, int[][] activePixels,
+			int[] activeCounts, int from, int activeFrom,
+			int[][] actualResults, int count, GradientBuffer gradientBuffer) {
+		int outputCount = neurons.length;
+		int inputCount = weightMatrix.getInputCount();
+		double[] weights = weightMatrix.getWeights();
+		double[] gradients = gradientBuffer.getGradients();
+
+		// Rows are the outer loop so each row stays in cache for the batch
+		for (int row = 0, offset = 0; row < outputCount; row++, offset += inputCount)
+			for (int s = 0; s < count; s++) {
+				int[] sampleActive = activePixels[activeFrom + s];
+				int activeCount = activeCounts[activeFrom + s];
+				double sum = 0d;
+
+				if (activeCount >= 0)
+					for (int i = 0; i < activeCount; i++)
+						sum += weights[offset + sampleActive[i]];
+				else
+					for (int i = 0; i < inputCount; i++)
+						sum += weights[offset + i] * inputs[from + s][i];
+
+				double error = actualResults[from + s][row]
+						- NetworkMath.sigmoid(sum);
+
+				if (activeCount >= 0)
+					for (int i = 0; i < activeCount; i++)
+						gradients[offset + sampleActive[i]] += error;
+				else
+					for (int i = 0; i < inputCount; i++)
+						gradients[offset + i] += error * inputs[from + s][i];
+			}
+
+		gradientBuffer.addSamples(count);
+	}
+
 	public Neuron[] getNeurons() {
 		return neurons;
 	}
 
+	public WeightMatrix getWeightMatrix() {
+		return weightMatrix;
+	}
+
 	public LearningMethod getLearningMethod() {
 		return learningMethod;
 	}
@@ -1,4 +1,3 @@
-
 /**
  * Author: Austin Patel
  * Project: Handwritten Recognition
@@ -9,52 +8,64 @@
 package austinpatel.handwrittenletterrecognition.neural_network;
 
 import austinpatel.handwrittenletterrecognition.math.NetworkMath;
+import austinpatel.handwrittenletterrecognition.math.RandomService;
 
-/**Neuron structure for Artificial Neural Network.*/
+/**
+ * Neuron structure for Artificial Neural Network. The weights are a view of
+ * one row of the network's "WeightMatrix".
+ */
 public class Neuron {
 
 	private int inputCount;
-	private double[] weights;
+	private WeightMatrix weightMatrix;
 	private LearningMethod learningMethod;
 	private int id;
-	
-	public Neuron(LearningMethod learningMethod, int inputCount, int id) {
+
+	public Neuron(LearningMethod learningMethod, WeightMatrix weightMatrix,
+			int id) {
 		this.learningMethod = learningMethod;
-		this.inputCount = inputCount;
+		this.weightMatrix = weightMatrix;
+		this.inputCount = weightMatrix.getInputCount();
 		this.id = id;
-		
+
 		randomizeWeights();
 	}
-	
+
 	public double getOutput(int[] inputs) {
-		double sum = 0d;
-		
-		for (int i = 0; i < inputCount; i++)
-			sum += weights[i] * inputs[i];
-				
-		return NetworkMath.sigmoid(sum);
-	}
-	
+		return NetworkMath.sigmoid(weightMatrix.multiplyRow(id, inputs));
+	}
+
 	private void randomizeWeights() {
-		weights = new double[inputCount];
-		
-		for (int i = 0; i < weights.length; i++)
-			weights[i] = Math.random() / 30;
+		RandomService.stream(RandomService.NEURON_STREAM, id).fill(
+				weightMatrix.getWeights(), weightMatrix.getOffset(id),
+				inputCount, 0, 1d / 30);
 	}
-	
+
+	/** Returns a copy of the neuron's weights. */
 	public double[] getWeights() {
+		double[] weights = new double[inputCount];
+		weightMatrix.getRow(id, weights, 0);
+
 		return weights;
 	}
-	
+
+	/** Copies the given weights into the neuron's row of the matrix. */
 	public void setWeights(double[] weights) {
-		this.weights = weights;
+		weightMatrix.setRow(id, weights, 0);
+	}
+
+	/** Copies the weights starting at "offset" of "source" into the row. */
+	public void setWeights(double[] source, int offset) {
+		weightMatrix.setRow(id, source, offset);
 	}
-	
+
 	public void learn(double error, int[] inputs) {
-		for (int i = 0; i < weights.length; i++)
-			weights[i] += learningMethod.getWeightDelta(error, inputs[i], id, i);
+		double[] weights = weightMatrix.getWeights();
+		int offset = weightMatrix.getOffset(id);
+
+		learningMethod.learnRow(error, inputs, weights, offset, inputCount, id);
 	}
-	
+
 	public void setLearningMethod(LearningMethod learningMethod) {
 		this.learningMethod = learningMethod;
 	}
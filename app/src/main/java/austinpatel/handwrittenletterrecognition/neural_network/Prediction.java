@@ -0,0 +1,84 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: Prediction.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import austinpatel.handwrittenletterrecognition.data.Alphabet;
+
+/**
+ * Reusable result of "NeuralNetwork.predict". Holds the output of every
+ * neuron and the labels with the highest outputs in descending order; equal
+ * outputs are ranked by the lower label first. Filling it does not allocate.
+ */
+public class Prediction {
+
+	private final double[] scores;
+	private final int[] topLabels;
+
+	/**
+	 * @param outputCount number of neurons of the network
+	 * @param topCount    how many of the best labels to rank
+	 */
+	public Prediction(int outputCount, int topCount) {
+		scores = new double[outputCount];
+		topLabels = new int[Math.min(topCount, outputCount)];
+	}
+
+	/** Ranks the labels after "scores" has been filled. */
+	void rank() {
+		int ranked = 0;
+
+		for (int label = 0; label < scores.length; label++) {
+			double score = scores[label];
+			int position = ranked;
+
+			while (position > 0 && scores[topLabels[position - 1]] < score)
+				position--;
+
+			if (position >= topLabels.length)
+				continue;
+
+			int end = Math.min(ranked, topLabels.length - 1);
+			for (int i = end; i > position; i--)
+				topLabels[i] = topLabels[i - 1];
+
+			topLabels[position] = label;
+
+			if (ranked < topLabels.length)
+				ranked++;
+		}
+	}
+
+	/** Returns the label with the highest output. */
+	public int getLabel() {
+		return topLabels[0];
+	}
+
+	public char getCharacter() {
+		return Alphabet.getCharacter(topLabels[0]);
+	}
+
+	/** Returns the label ranked at "rank", 0 being the best. */
+	public int getLabel(int rank) {
+		return topLabels[rank];
+	}
+
+	/** Returns the output of the label ranked at "rank". */
+	public double getScore(int rank) {
+		return scores[topLabels[rank]];
+	}
+
+	public int getTopCount() {
+		return topLabels.length;
+	}
+
+	/** Returns the output of every neuron, indexed by label. */
+	public double[] getScores() {
+		return scores;
+	}
+
+}
@@ -0,0 +1,293 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: StreamingTrainer.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import austinpatel.handwrittenletterrecognition.data.Alphabet;
+import austinpatel.handwrittenletterrecognition.data.Constants;
+import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.data.PackedLetterReader;
+import austinpatel.handwrittenletterrecognition.math.RandomService;
+import austinpatel.handwrittenletterrecognition.math.RandomStream;
+
+/**
+ * Trains a network from a "PackedLetterFile" without loading it. A prefetch
+ * thread reads shards of consecutive samples, in a new random shard order
+ * each epoch, into two recycled buffers, so the next shard is read while the
+ * current one is trained on. The samples then pass through a shuffle window:
+ * each sample replaces a random one in the window, which is trained on.
+ * Memory is bounded by the shard size, the window size and the batch size,
+ * whatever the size of the file.
+ */
+public class StreamingTrainer {
+
+	private static final int BUFFER_COUNT = 2;
+
+	private final NeuralNetwork neuralNetwork;
+	private final File file;
+	private final int shardSize, windowSize, batchSize;
+	private final int wordsPerSample;
+	private final int[][] actualValues;
+	private int epoch;
+
+	// Shuffle window and the current batch
+	private long[] windowWords;
+	private char[] windowCharacters;
+	private int windowCount;
+	private int[][] batchInputs, batchActive, batchResults;
+	private int[] batchCounts;
+	private int batchCount;
+
+	/**
+	 * Trains "neuralNetwork" on "file" in shards of "shardSize" samples
+	 * through a shuffle window of "windowSize" samples. A batch size of 1
+	 * uses "NeuralNetwork.learn", larger ones "NeuralNetwork.learnBatch".
+	 */
+	public StreamingTrainer(NeuralNetwork neuralNetwork, File file,
+			int shardSize, int windowSize, int batchSize) {
+		if (shardSize < 1 || windowSize < 1 || batchSize < 1)
+			throw new IllegalArgumentException("Invalid streaming trainer: "
+					+ shardSize + " samples per shard, window " + windowSize
+					+ ", batch " + batchSize);
+
+		this.neuralNetwork = neuralNetwork;
+		this.file = file;
+		this.shardSize = shardSize;
+		this.windowSize = windowSize;
+		this.batchSize = batchSize;
+
+		wordsPerSample = LetterData.getWordCount();
+		actualValues = new int[Alphabet.getLength()][];
+		for (int i = 0; i < actualValues.length; i++)
+			actualValues[i] = Trainer.getActualValues(Alphabet.getCharacter(i));
+	}
+
+	/**
+	 * Trains on every sample of the file once. The order is reproducible for
+	 * a given seed and epoch.
+	 */
+	public void trainEpoch() throws IOException {
+		final PackedLetterReader reader = new PackedLetterReader(file);
+
+		try {
+			trainEpoch(reader);
+		} finally {
+			reader.close();
+		}
+
+		epoch++;
+	}
+
+	private void trainEpoch(final PackedLetterReader reader)
+			throws IOException {
+		final ArrayBlockingQueue<Shard> free = new ArrayBlockingQueue<Shard>(
+				BUFFER_COUNT);
+		final ArrayBlockingQueue<Shard> full = new ArrayBlockingQueue<Shard>(
+				BUFFER_COUNT + 1);
+
+		for (int i = 0; i < BUFFER_COUNT; i++)
+			free.add(new Shard(shardSize, wordsPerSample));
+
+		final int sampleCount = reader.getSampleCount();
+		final int[] shardOrder = new int[(sampleCount + shardSize - 1)
+				/ shardSize];
+		RandomStream random = RandomService.stream(
+				RandomService.STREAMING_STREAM, (long) epoch << 1);
+
+		for (int i = 0; i < shardOrder.length; i++)
+			shardOrder[i] = i;
+
+		shuffle(shardOrder, random);
+
+		final Throwable[] failure = new Throwable[1];
+		Thread prefetcher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int shard : shardOrder) {
+						Shard buffer = free.take();
+						int first = shard * shardSize;
+
+						buffer.count = Math.min(shardSize, sampleCount - first);
+						reader.read(first, buffer.count, buffer.words,
+								buffer.characters);
+						full.put(buffer);
+					}
+				} catch (InterruptedException e) {
+					// The consumer stopped early
+				} catch (Throwable e) {
+					failure[0] = e;
+				} finally {
+					// Always wake the consumer, whatever went wrong. The queue
+					// has room for the end marker.
+					full.add(Shard.END);
+				}
+			}
+		}, "Letter prefetch");
+
+		prefetcher.setDaemon(true);
+		prefetcher.start();
+
+		RandomStream windowRandom = RandomService.stream(
+				RandomService.STREAMING_STREAM, ((long) epoch << 1) | 1);
+		allocateBuffers();
+
+		try {
+			Shard shard;
+			while ((shard = full.take()) != Shard.END) {
+				for (int s = 0; s < shard.count; s++)
+					add(shard, s, windowRandom);
+
+				free.put(shard);
+			}
+
+			prefetcher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while streaming samples");
+		} finally {
+			prefetcher.interrupt();
+		}
+
+		if (failure[0] instanceof IOException)
+			throw (IOException) failure[0];
+
+		if (failure[0] != null)
+			throw new IOException("Could not read samples", failure[0]);
+
+		// Train on what is left in the window in random order
+		while (windowCount > 0) {
+			int slot = windowRandom.nextInt(windowCount);
+
+			train(slot);
+			windowCount--;
+			copySlot(windowCount, slot);
+		}
+
+		flushBatch();
+	}
+
+	/**
+	 * Adds sample "s" of "shard" to the window. Once the window is full the
+	 * sample takes the place of a random sample, which is trained on.
+	 */
+	private void add(Shard shard, int s, RandomStream random) {
+		int slot;
+
+		if (windowCount < windowSize)
+			slot = windowCount++;
+		else {
+			slot = random.nextInt(windowSize);
+			train(slot);
+		}
+
+		System.arraycopy(shard.words, s * wordsPerSample, windowWords, slot
+				* wordsPerSample, wordsPerSample);
+		windowCharacters[slot] = shard.characters[s];
+	}
+
+	private void copySlot(int from, int to) {
+		System.arraycopy(windowWords, from * wordsPerSample, windowWords, to
+				* wordsPerSample, wordsPerSample);
+		windowCharacters[to] = windowCharacters[from];
+	}
+
+	/** Adds the sample in window slot "slot" to the batch. */
+	private void train(int slot) {
+		int letterIndex = Alphabet.indexOf(windowCharacters[slot]);
+
+		// Labels outside the alphabet have no output neuron
+		if (letterIndex < 0)
+			return;
+
+		int offset = slot * wordsPerSample;
+
+		// Single samples go through "learn", which takes the full pixels
+		if (batchSize == 1) {
+			int[] inputs = batchInputs[0];
+
+			for (int i = 0; i < inputs.length; i++)
+				inputs[i] = (int) (windowWords[offset + (i >> 6)] >>> i) & 1;
+		} else
+			batchCounts[batchCount] = LetterData.getActivePixels(windowWords,
+					offset, wordsPerSample, batchActive[batchCount]);
+
+		batchResults[batchCount++] = actualValues[letterIndex];
+
+		if (batchCount == batchSize)
+			flushBatch();
+	}
+
+	private void flushBatch() {
+		if (batchCount == 0)
+			return;
+
+		if (batchSize == 1)
+			neuralNetwork.learn(batchInputs[0], batchResults[0]);
+		else
+			neuralNetwork.learnBatch(batchActive, batchCounts, batchResults, 0,
+					batchCount);
+
+		batchCount = 0;
+	}
+
+	private void allocateBuffers() {
+		if (windowWords == null) {
+			windowWords = new long[windowSize * wordsPerSample];
+			windowCharacters = new char[windowSize];
+			int pixelCount = Constants.GRID_WIDTH * Constants.GRID_HEIGHT;
+
+			if (batchSize == 1)
+				batchInputs = new int[1][pixelCount];
+			else {
+				batchActive = new int[batchSize][pixelCount];
+				batchCounts = new int[batchSize];
+			}
+
+			batchResults = new int[batchSize][];
+		}
+
+		windowCount = 0;
+		batchCount = 0;
+	}
+
+	private static void shuffle(int[] values, RandomStream random) {
+		for (int i = values.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = values[i];
+
+			values[i] = values[j];
+			values[j] = swap;
+		}
+	}
+
+	public int getEpoch() {
+		return epoch;
+	}
+
+	/** Samples of one shard, packed as in the file. */
+	private static class Shard {
+
+		/** Marks the end of an epoch. */
+		static final Shard END = new Shard(0, 0);
+
+		final long[] words;
+		final char[] characters;
+		int count;
+
+		Shard(int size, int wordsPerSample) {
+			words = new long[size * wordsPerSample];
+			characters = new char[size];
+		}
+
+	}
+
+}
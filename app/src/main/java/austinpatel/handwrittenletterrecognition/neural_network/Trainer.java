@@ -10,12 +10,18 @@ package austinpatel.handwrittenletterrecognition.neural_network;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import austinpatel.handwrittenletterrecognition.data.Alphabet;
 import austinpatel.handwrittenletterrecognition.data.Constants;
 import austinpatel.handwrittenletterrecognition.data.ExperimentalData;
 import austinpatel.handwrittenletterrecognition.data.FileManager;
 import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.data.LetterDataset;
 import austinpatel.handwrittenletterrecognition.neural_network.genetics.GeneticAlgorithm;
 
 /** Uses training "LetterData" as inputs to teach the neural network. */
@@ -27,6 +33,7 @@ public class Trainer {
 			TEST_COUNT = (int) (100 * ITERATION_MULTIPLIER),
 			GA_TEST_COUNT = (int) (100 * GA_MULTIPLIER);
 	private static double DEFAULT_BREED_RATE = 0.9, DEFAULT_DEATH_RATE = 0.00;
+	private static final int SHARD_SIZE = 8;
 
 	private String accuracyFileContent, costFileContent;
 
@@ -152,8 +159,7 @@ public class Trainer {
 				Constants.GRID_WIDTH * Constants.GRID_HEIGHT,
 				Alphabet.getLength());
 
-		if (neuralNetwork.getLearningMethod().getName()
-				.equals(GeneticAlgorithmLearningMethod.NAME)) {
+		if (neuralNetwork.getLearningMethod() instanceof GeneticAlgorithmLearningMethod) {
 			GeneticAlgorithmLearningMethod learningMethod = ((GeneticAlgorithmLearningMethod) neuralNetwork
 					.getLearningMethod());
 			learningMethod.getGeneticAlgorithm()
@@ -218,8 +224,39 @@ public class Trainer {
 		return neuralNetwork;
 	}
 
+	/**
+	 * Trains with the genetic algorithm while refining its elites with
+	 * backpropagation every few generations, instead of one after the other
+	 * as in "twoLearningAlgorithmTest".
+	 */
+	public static NeuralNetwork memeticTest(boolean debug, int generations) {
+		GeneticAlgorithm geneticAlgorithm = new GeneticAlgorithm(100,
+				generations, 0.5, 0);
+		NeuralNetwork neuralNetwork = new NeuralNetwork(
+				new MemeticLearningMethod(geneticAlgorithm, 2, 2, 1, 0.1),
+				Constants.GRID_WIDTH * Constants.GRID_HEIGHT,
+				Alphabet.getLength());
+
+		geneticAlgorithm.setNeuralNetwork(neuralNetwork);
+
+		Trainer trainer;
+		if (debug)
+			trainer = new Trainer(neuralNetwork, true, "memeticGAandBP");
+		else
+			trainer = new Trainer(neuralNetwork);
+		trainer.trainNetwork(true);
+
+		Experimenter experimenter = new Experimenter(neuralNetwork);
+		ExperimentalData experimentalData = experimenter.testNetwork();
+
+		System.out.println("Accuracy: "
+				+ (int) (experimentalData.getAccuracy() * 100) + '%');
+
+		return neuralNetwork;
+	}
+
 	private static boolean init;
-	private static ArrayList<LetterData> trainingLetterData;
+	private static List<LetterData> trainingLetterData;
 	private static int[][] actualValues;
 
 	private NeuralNetwork neuralNetwork;
@@ -227,6 +264,15 @@ public class Trainer {
 	private String accuracyPath, costPath;
 	private String fileName;
 	private boolean debug;
+	private int batchSize = 1;
+	private int[][] batchActive, batchResults;
+	private int[] batchCounts;
+	private int[] batchIndices;
+	private EpochScheduler scheduler;
+	private long timeBudget;
+	private TrainingMode trainingMode = TrainingMode.SINGLE_THREADED;
+	private ForkJoinPool pool;
+	private GradientBuffer[] shardBuffers;
 
 	/**
 	 * Initializes the Trainer with debugging capabilities including file output
@@ -252,6 +298,8 @@ public class Trainer {
 
 		if (!Trainer.init)
 			init();
+
+		scheduler = new EpochScheduler(trainingLetterData.size());
 	}
 
 	/** Assumes debug false. */
@@ -274,25 +322,12 @@ public class Trainer {
 		}
 	}
 
-	/** Loads experimental and training data. */
+	/**
+	 * Loads the training data. The samples are shared with the experimenter
+	 * and are shuffled per epoch by the "EpochScheduler".
+	 */
 	private static void loadLetterData() {
-		// Load training data
-		ArrayList<LetterData> tempData = new ArrayList<LetterData>();
-		trainingLetterData = new ArrayList<LetterData>();
-
-		for (char c : Alphabet.getAlphabet().toCharArray()) {
-			String filePath = Constants.RESOURCES_PATH
-					+ Constants.TRAINING_LETTERS_FOLDER + "\\" + c + ".txt";
-			LetterData[] currentLetterData = LetterData.getLetterData(c);
-
-			for (LetterData letterData : currentLetterData)
-				tempData.add(letterData);
-		}
-
-		// Shuffle the training data
-		while (!tempData.isEmpty())
-			trainingLetterData.add(
-					tempData.remove((int) (Math.random() * tempData.size())));
+		trainingLetterData = LetterDataset.get().getAll();
 	}
 
 	public void trainNetwork() {
@@ -317,54 +352,80 @@ public class Trainer {
 		// Prepare for testing the network
 		LearningMethod learningMethod = neuralNetwork.getLearningMethod();
 
-		boolean isGenetic = learningMethod.getName()
-				.equals(GeneticAlgorithmLearningMethod.NAME);
+		boolean isGenetic = learningMethod instanceof GeneticAlgorithmLearningMethod;
 
 		int totalIterations = 0;
+		GeneticAlgorithm geneticAlgorithm = null;
 		if (isGenetic) {
-			totalIterations = ((GeneticAlgorithmLearningMethod) learningMethod)
-					.getGeneticAlgorithm().getGenerationCount();
+			geneticAlgorithm = ((GeneticAlgorithmLearningMethod) learningMethod)
+					.getGeneticAlgorithm();
+			geneticAlgorithm.resetConvergence();
+
+			// Each cycle may advance several generations in the island model
+			totalIterations = Math.max(1, geneticAlgorithm.getGenerationCount()
+					/ geneticAlgorithm.getGenerationsPerCycle());
 
 			totalIterations *= GA_MULTIPLIER;
 		} else {
-			totalIterations = trainingLetterData.size();
-			totalIterations *= ITERATION_MULTIPLIER;
+			scheduler.setBudget(ITERATION_MULTIPLIER, timeBudget);
+			totalIterations = (int) scheduler.getRemaining();
 		}
 
 		// Loop through each letter or generation
-		int lastPercent = -1;
-		int testIncrement = totalIterations
-				/ ((isGenetic) ? GA_TEST_COUNT : TEST_COUNT);
+		int lastDecile = -1;
+		int testIncrement = Math.max(1, totalIterations
+				/ ((isGenetic) ? GA_TEST_COUNT : TEST_COUNT));
 		boolean testThisIteration = false;
+		int step = (isGenetic) ? 1 : batchSize;
 
-		for (int i = 0; i < totalIterations; i++) {
-			// Progress calculations
-			int percent = (int) ((double) i / totalIterations * 100);
+		if (!isGenetic && trainingMode == TrainingMode.HOGWILD)
+			trainHogwild();
+		else
+			for (int i = 0; i < totalIterations; i += step) {
+				// Progress calculations
+				int decile = (int) ((double) i / totalIterations * 10);
 
-			if (percent % 10 == 0 && percent != lastPercent) {
-				if (debug)
-					System.out.println(percent + "%");
-				lastPercent = percent;
-			}
+				if (decile != lastDecile) {
+					if (debug)
+						System.out.println(decile * 10 + "%");
+					lastDecile = decile;
+				}
+
+				testThisIteration = i != 0
+						&& i / testIncrement != (i - step) / testIncrement;
 
-			testThisIteration = (i % testIncrement == 0) && i != 0;
+				// Learning process
+				learningMethod.onLearningCycleStart();
 
-			// Learning process
-			learningMethod.onLearningCycleStart();
+				// Stop early once every letter has converged
+				if (isGenetic && geneticAlgorithm.isFinished())
+					break;
 
-			if (!isGenetic) {
-				// Use modulus to handle overflow if using extra letters
-				LetterData letterData = trainingLetterData
-						.get(i % trainingLetterData.size());
+				if (!isGenetic) {
+					if (step == 1 && trainingMode != TrainingMode.SYNCHRONOUS) {
+						int sample = scheduler.next();
 
-				neuralNetwork.learn(letterData.getData1D(),
-						Trainer.actualValues[Alphabet
-								.indexOf(letterData.getCharacter())]);
+						// The time budget is spent
+						if (sample < 0)
+							break;
+
+						LetterData letterData = trainingLetterData.get(sample);
+
+						neuralNetwork.learn(letterData.getData1D(),
+								Trainer.actualValues[Alphabet
+										.indexOf(letterData.getCharacter())]);
+					} else if (!learnBatch())
+						break;
+				}
+
+				if (debug && testThisIteration)
+					testNetwork();
 			}
 
-			if (debug && testThisIteration)
-				testNetwork();
-		}
+		// Evolution is over, so release the algorithm's worker threads
+		if (isGenetic)
+			((GeneticAlgorithmLearningMethod) learningMethod)
+					.getGeneticAlgorithm().shutdown();
 
 		if (debug) {
 			testNetwork();
@@ -378,6 +439,173 @@ public class Trainer {
 		}
 	}
 
+	/**
+	 * Trains on the next samples of the scheduler as one mini-batch. Returns
+	 * false once the budget is spent.
+	 */
+	private boolean learnBatch() {
+		if (batchActive == null || batchActive.length != batchSize) {
+			batchActive = new int[batchSize][];
+			batchCounts = new int[batchSize];
+			batchResults = new int[batchSize][];
+			batchIndices = new int[batchSize];
+		}
+
+		int count = scheduler.next(batchIndices, batchSize);
+		if (count == 0)
+			return false;
+
+		for (int s = 0; s < count; s++) {
+			LetterData letterData = trainingLetterData.get(batchIndices[s]);
+
+			batchActive[s] = letterData.getActivePixels();
+			batchCounts[s] = letterData.getActiveCount();
+			batchResults[s] = Trainer.actualValues[Alphabet
+					.indexOf(letterData.getCharacter())];
+		}
+
+		if (trainingMode == TrainingMode.SYNCHRONOUS)
+			learnBatchSynchronous(count);
+		else
+			neuralNetwork.learnBatch(batchActive, batchCounts, batchResults, 0,
+					count);
+
+		return true;
+	}
+
+	/**
+	 * Computes the gradients of the current batch in parallel shards, sums
+	 * them in shard order and applies them once.
+	 */
+	private void learnBatchSynchronous(int count) {
+		int shardCount = (count + SHARD_SIZE - 1) / SHARD_SIZE;
+
+		if (shardBuffers == null || shardBuffers.length < shardCount) {
+			shardBuffers = new GradientBuffer[shardCount];
+
+			for (int i = 0; i < shardCount; i++)
+				shardBuffers[i] = new GradientBuffer(
+						neuralNetwork.getNeurons().length,
+						neuralNetwork.getWeightMatrix().getInputCount());
+		}
+
+		pool.invoke(new GradientShardTask(neuralNetwork, batchActive,
+				batchCounts, batchResults, count, SHARD_SIZE, shardBuffers, 0,
+				shardCount));
+
+		for (int i = 1; i < shardCount; i++)
+			shardBuffers[0].add(shardBuffers[i]);
+
+		neuralNetwork.applyGradients(shardBuffers[0]);
+	}
+
+	/**
+	 * Lets every worker take batches from the scheduler until the budget is
+	 * spent. Each worker trains with its own buffers and writes to the shared
+	 * weights without locking.
+	 */
+	private void trainHogwild() {
+		int workerCount = pool.getParallelism();
+		List<Callable<Void>> workers = new ArrayList<Callable<Void>>();
+
+		for (int w = 0; w < workerCount; w++) {
+			workers.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					int[][] active = new int[batchSize][];
+					int[] activeCounts = new int[batchSize];
+					int[][] results = new int[batchSize][];
+					int[] indices = new int[batchSize];
+					GradientBuffer buffer = new GradientBuffer(
+							neuralNetwork.getNeurons().length,
+							neuralNetwork.getWeightMatrix().getInputCount());
+					int count;
+
+					while ((count = scheduler.next(indices, batchSize)) > 0) {
+						for (int s = 0; s < count; s++) {
+							LetterData letterData = trainingLetterData
+									.get(indices[s]);
+
+							active[s] = letterData.getActivePixels();
+							activeCounts[s] = letterData.getActiveCount();
+							results[s] = Trainer.actualValues[Alphabet
+									.indexOf(letterData.getCharacter())];
+						}
+
+						buffer.clear();
+						neuralNetwork.accumulateGradients(active,
+								activeCounts, results, 0, count, buffer);
+						neuralNetwork.applyGradients(buffer);
+					}
+
+					return null;
+				}
+			});
+		}
+
+		try {
+			for (Future<Void> future : pool.invokeAll(workers))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while training", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Hogwild training failed",
+					e.getCause());
+		}
+	}
+
+	/**
+	 * Selects how training is spread across threads. The pool is used by the
+	 * parallel modes and is not shut down by the trainer; a null pool selects
+	 * "WorkerPool.getDefault". With "HOGWILD" the state of learning methods
+	 * such as momentum and learning-rate decay is updated without locking,
+	 * so it races like the weights do.
+	 */
+	public void setTrainingMode(TrainingMode trainingMode, ForkJoinPool pool) {
+		if (trainingMode == null)
+			throw new IllegalArgumentException("No training mode");
+
+		this.trainingMode = trainingMode;
+		this.pool = (pool == null && trainingMode != TrainingMode.SINGLE_THREADED)
+				? WorkerPool.getDefault() : pool;
+	}
+
+	public TrainingMode getTrainingMode() {
+		return trainingMode;
+	}
+
+	/**
+	 * Sets how many samples are trained on together. A batch size of 1 keeps
+	 * the per-sample updates of "NeuralNetwork.learn".
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be positive.");
+
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Limits each call to "trainNetwork" with a backpropagation method to
+	 * "millis" milliseconds. A time of 0 sets no limit.
+	 */
+	public void setTimeBudget(long millis) {
+		this.timeBudget = millis;
+	}
+
+	/**
+	 * Returns the scheduler that orders the training samples, for example to
+	 * listen for epoch boundaries.
+	 */
+	public EpochScheduler getEpochScheduler() {
+		return scheduler;
+	}
+
 	/** Tests the network and saves its data. */
 	private void testNetwork() {
 		ExperimentalData experimentalData = experimenter.testNetwork();
@@ -391,7 +619,7 @@ public class Trainer {
 	/**
 	 * Returns the results expected from the neural network for a given letter.
 	 */
-	private static int[] getActualValues(char c) {
+	static int[] getActualValues(char c) {
 		int[] actualValues = new int[Alphabet.getAlphabet().length()];
 
 		for (int i = 0; i < actualValues.length; i++)
@@ -0,0 +1,33 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: TrainingMode.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+/** How the "Trainer" spreads training work across threads. */
+public enum TrainingMode {
+
+	/** All samples are trained on the calling thread. */
+	SINGLE_THREADED,
+
+	/**
+	 * Each mini-batch is split into fixed-size shards whose gradients are
+	 * computed in parallel, summed in shard order and applied once. The shard
+	 * layout does not depend on the pool, so results are deterministic.
+	 */
+	SYNCHRONOUS,
+
+	/**
+	 * Each worker trains on its own slice of the samples and updates the
+	 * shared weights without locking. Updates may race, so results are not
+	 * reproducible. Learning methods with state, such as the momentum sums
+	 * and counts or the decaying learning rate, are updated without locking
+	 * too, so some of their updates can be lost. Plain backpropagation has no
+	 * such state.
+	 */
+	HOGWILD
+
+}
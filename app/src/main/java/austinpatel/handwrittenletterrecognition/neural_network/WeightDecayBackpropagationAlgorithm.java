@@ -27,4 +27,25 @@ public class WeightDecayBackpropagationAlgorithm extends BackpropagationAlgorith
 		return super.getWeightDelta(error, input, neuronId, weightId) + decay;
 	}
 
+	@Override
+	public void learnRow(double error, int[] inputs, double[] weights,
+			int offset, int inputCount, int neuronId) {
+		for (int i = 0; i < inputCount; i++)
+			weights[offset + i] += error * inputs[i] * learningRate + decay;
+	}
+
+	/**
+	 * Adds the decay once per sample of the batch, as "batchSize" per-sample
+	 * updates would.
+	 */
+	@Override
+	public void applyBatch(double[] weights, double[] gradients,
+			int neuronCount, int inputCount, int batchSize) {
+		double rate = learningRate / batchSize;
+		double batchDecay = decay * batchSize;
+
+		for (int k = 0; k < neuronCount * inputCount; k++)
+			weights[k] += gradients[k] * rate + batchDecay;
+	}
+
 }
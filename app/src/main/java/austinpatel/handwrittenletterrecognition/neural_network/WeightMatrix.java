@@ -0,0 +1,140 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: WeightMatrix.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+/**
+ * Stores the weights of every output neuron in one contiguous row-major
+ * array. Row "r" holds the weights of neuron "r", so weight "i" of that
+ * neuron lives at index "r * inputCount + i".
+ */
+public class WeightMatrix {
+
+	private final double[] weights;
+	private final int rowCount, inputCount;
+
+	public WeightMatrix(int rowCount, int inputCount) {
+		this.rowCount = rowCount;
+		this.inputCount = inputCount;
+
+		weights = new double[rowCount * inputCount];
+	}
+
+	/** Computes the weighted input sum of every row in a single pass. */
+	public void multiply(int[] inputs, double[] sums) {
+		double[] weights = this.weights;
+		int inputCount = this.inputCount;
+
+		for (int row = 0, offset = 0; row < rowCount; row++, offset += inputCount) {
+			double sum = 0d;
+
+			for (int i = 0; i < inputCount; i++)
+				sum += weights[offset + i] * inputs[i];
+
+			sums[row] = sum;
+		}
+	}
+
+	/**
+	 * Computes the weighted input sum of every row for a binary input given as
+	 * the ascending indices of its set pixels. Only the weights at those
+	 * positions are visited.
+	 */
+	public void multiplyActive(int[] activePixels, int activeCount,
+			double[] sums) {
+		double[] weights = this.weights;
+
+		for (int row = 0, offset = 0; row < rowCount; row++, offset += inputCount) {
+			double sum = 0d;
+
+			for (int i = 0; i < activeCount; i++)
+				sum += weights[offset + activePixels[i]];
+
+			sums[row] = sum;
+		}
+	}
+
+	/**
+	 * Computes the weighted sums of a block of binary samples, each given by
+	 * its set pixels. Rows are the outer loop so each row of weights is read
+	 * once per block. Sample "s" row "r" is written to "sums[s * rowCount + r]".
+	 */
+	public void multiplyActiveBlock(int[][] activePixels, int count,
+			double[] sums) {
+		double[] weights = this.weights;
+
+		for (int row = 0, offset = 0; row < rowCount; row++, offset += inputCount)
+			for (int s = 0; s < count; s++) {
+				int[] sampleActive = activePixels[s];
+				double sum = 0d;
+
+				for (int i = 0; i < sampleActive.length; i++)
+					sum += weights[offset + sampleActive[i]];
+
+				sums[s * rowCount + row] = sum;
+			}
+	}
+
+	/** Computes the weighted input sum of a single row. */
+	public double multiplyRow(int row, int[] inputs) {
+		return dot(row * inputCount, inputs);
+	}
+
+	/** Computes the weighted sum of a single row for a binary input. */
+	public double multiplyRowActive(int row, int[] activePixels,
+			int activeCount) {
+		int offset = row * inputCount;
+		double sum = 0d;
+
+		for (int i = 0; i < activeCount; i++)
+			sum += weights[offset + activePixels[i]];
+
+		return sum;
+	}
+
+	private double dot(int offset, int[] inputs) {
+		double sum = 0d;
+
+		for (int i = 0; i < inputCount; i++)
+			sum += weights[offset + i] * inputs[i];
+
+		return sum;
+	}
+
+	/** Copies a row of weights into the matrix. */
+	public void setRow(int row, double[] source, int sourceOffset) {
+		System.arraycopy(source, sourceOffset, weights, row * inputCount,
+				inputCount);
+	}
+
+	/** Copies a row of weights out of the matrix. */
+	public void getRow(int row, double[] destination, int destinationOffset) {
+		System.arraycopy(weights, row * inputCount, destination,
+				destinationOffset, inputCount);
+	}
+
+	/**
+	 * Returns the backing array. Writes to it are seen by every neuron of the
+	 * network.
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+
+	public int getOffset(int row) {
+		return row * inputCount;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getInputCount() {
+		return inputCount;
+	}
+
+}
@@ -0,0 +1,33 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: WorkerPool.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Holds the process-wide fork/join pool used when a caller does not supply
+ * its own. It has one worker per available processor and its threads are
+ * daemons, so it never keeps the process alive.
+ */
+public class WorkerPool {
+
+	private static ForkJoinPool defaultPool;
+
+	public WorkerPool() {
+
+	}
+
+	public static synchronized ForkJoinPool getDefault() {
+		if (defaultPool == null)
+			defaultPool = new ForkJoinPool(
+					Runtime.getRuntime().availableProcessors());
+
+		return defaultPool;
+	}
+
+}
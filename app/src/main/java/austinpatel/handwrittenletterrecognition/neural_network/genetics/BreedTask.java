@@ -0,0 +1,38 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: BreedTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import java.util.concurrent.RecursiveAction;
+
+/** Fork/join task that breeds the next generation of a range of genomes. */
+@SuppressWarnings("serial")
+class BreedTask extends RecursiveAction {
+
+	private final Genome[] genomes;
+	private final int from, to;
+
+	BreedTask(Genome[] genomes, int from, int to) {
+		this.genomes = genomes;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new BreedTask(genomes, from, middle),
+					new BreedTask(genomes, middle, to));
+			return;
+		}
+
+		genomes[from].nextGeneration();
+	}
+
+}
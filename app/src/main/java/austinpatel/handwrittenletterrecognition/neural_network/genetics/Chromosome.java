@@ -1,4 +1,3 @@
-
 /**
  * Author: Austin Patel
  * Project: Handwritten Recognition
@@ -8,60 +7,77 @@
 
 package austinpatel.handwrittenletterrecognition.neural_network.genetics;
 
-import java.util.ArrayList;
-
-/** Represents a specific chromosome in a genome. */
-@SuppressWarnings("serial")
-public class Chromosome<E> extends ArrayList<E>
-		implements Comparable<Chromosome<E>> {
+import austinpatel.handwrittenletterrecognition.math.RandomStream;
 
-	private double fitness;
+/**
+ * Represents a specific chromosome in a genome. It is a view of one row of
+ * the genome's population matrix, so its genes are primitive doubles stored
+ * at "getOffset()" in "getGenes()".
+ */
+public class Chromosome {
 
-	public Chromosome(E[] values) {
-		super();
+	private final Genome genome;
+	private final int index;
 
-		fitness = 0;
+	Chromosome(Genome genome, int index) {
+		this.genome = genome;
+		this.index = index;
+	}
 
-		for (int i = 0; i < values.length; i++)
-			add(values[i]);
+	/**
+	 * Simulates the crossing of genetic information between two chromosomes:
+	 * genes before a random location come from "mother", the rest from
+	 * "father". The child is written to "destination".
+	 */
+	static void cross(double[] mother, int motherOffset, double[] father,
+			int fatherOffset, double[] destination, int destinationOffset,
+			int size, RandomStream random) {
+		int location = random.nextInt(size);
+
+		System.arraycopy(mother, motherOffset, destination, destinationOffset,
+				location);
+		System.arraycopy(father, fatherOffset + location, destination,
+				destinationOffset + location, size - location);
 	}
 
 	/**
-	 * Simulates the crossing of genetic information with another "Chromosome".
+	 * Simulates a mutation by changing the gene at "index" to a random
+	 * decimal value. Returns how much the gene changed.
 	 */
-	public Chromosome<E> cross(Chromosome<E> mate) {
-		E[] newContent = (E[]) new Object[size()];
-		int location = (int) (Math.random() * size());
+	static double mutate(double[] genes, int index, RandomStream random) {
+		double previous = genes[index];
+		genes[index] = random.nextDouble();
+
+		return genes[index] - previous;
+	}
 
-		for (int i = 0; i < size(); i++)
-			newContent[i] = (i < location) ? get(i) : mate.get(i);
+	/** Returns the population matrix holding this chromosome's genes. */
+	public double[] getGenes() {
+		return genome.getGenes();
+	}
 
-		return new Chromosome<>(newContent);
+	public int getOffset() {
+		return index * genome.getChromosomeSize();
 	}
 
-	/**
-	 * Simulates a mutation in a specific gene in the chromosome by changing a
-	 * random gene to a random decimal value.
-	 */
-	public void mutate() {
-		set((int) (Math.random() * size()), (E) (Object) Math.random());
+	public int getSize() {
+		return genome.getChromosomeSize();
+	}
+
+	public double getGene(int gene) {
+		return genome.getGenes()[getOffset() + gene];
 	}
 
 	public void setFitness(double fitness) {
-		this.fitness = fitness;
+		genome.setFitness(index, fitness);
 	}
 
 	public double getFitness() {
-		return fitness;
+		return genome.getFitness(index);
 	}
 
-	/**
-	 * Returns positive if fitness > other, 0 if fitness = other and negative if
-	 * fitness < other
-	 */
-	@Override
-	public int compareTo(Chromosome<E> o) {
-		return Double.compare(fitness, o.getFitness());
+	public int getIndex() {
+		return index;
 	}
 
-}
\ No newline at end of file
+}
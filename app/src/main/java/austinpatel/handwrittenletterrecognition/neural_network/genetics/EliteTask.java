@@ -0,0 +1,42 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: EliteTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that scores the elites of a range of letters on every
+ * sample and commits the best of each, one letter per leaf. Each letter only
+ * writes its own genomes and neuron.
+ */
+@SuppressWarnings("serial")
+class EliteTask extends RecursiveAction {
+
+	private final GeneticAlgorithm geneticAlgorithm;
+	private final int from, to;
+
+	EliteTask(GeneticAlgorithm geneticAlgorithm, int from, int to) {
+		this.geneticAlgorithm = geneticAlgorithm;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new EliteTask(geneticAlgorithm, from, middle),
+					new EliteTask(geneticAlgorithm, middle, to));
+			return;
+		}
+
+		geneticAlgorithm.commitBestElite(from);
+	}
+
+}
@@ -0,0 +1,394 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: FitnessContext.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import java.util.List;
+
+import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.math.NetworkMath;
+import austinpatel.handwrittenletterrecognition.neural_network.Experimenter;
+import austinpatel.handwrittenletterrecognition.neural_network.WeightMatrix;
+
+/**
+ * Snapshot of the network's outputs used to score chromosomes. For every
+ * experimental sample of letter "l" it stores the largest output of the
+ * neurons before "l" and of the neurons after "l". A candidate row for "l"
+ * then classifies the sample correctly when its own output beats the first
+ * and at least ties the second, which matches the lowest index tie rule of
+ * "NeuralNetwork.classifyActive". Scoring therefore only computes the
+ * candidate's row and never reads the live network.
+ *
+ * Chromosome outputs are cached in their "Genome", so a chromosome whose
+ * genes did not change is only compared against the new snapshot.
+ *
+ * The snapshot also keeps the two largest outputs of the other neurons for
+ * every sample, so a candidate can be scored on the samples of every letter,
+ * including those it would wrongly claim.
+ */
+public class FitnessContext {
+
+	/** Number of chromosomes in each unit of parallel fitness work. */
+	public static final int BLOCK_SIZE = 8;
+
+	private final int[][][] activePixels;
+	private final long[][][] sampleBits;
+	private final double[][] maxBefore, maxAfter, ownOutputs;
+	private final double[][] rivalOutputs, runnerUpOutputs;
+	private final int[][] rivals, runnerUps;
+	private double[] committed;
+
+	public FitnessContext(Experimenter experimenter, int letterCount) {
+		activePixels = new int[letterCount][][];
+		sampleBits = new long[letterCount][][];
+		maxBefore = new double[letterCount][];
+		maxAfter = new double[letterCount][];
+		ownOutputs = new double[letterCount][];
+		rivalOutputs = new double[letterCount][];
+		runnerUpOutputs = new double[letterCount][];
+		rivals = new int[letterCount][];
+		runnerUps = new int[letterCount][];
+
+		for (int letterIndex = 0; letterIndex < letterCount; letterIndex++) {
+			List<LetterData> letterData = experimenter
+					.getLetterData(letterIndex);
+			int sampleCount = letterData.size();
+
+			activePixels[letterIndex] = new int[sampleCount][];
+			sampleBits[letterIndex] = new long[sampleCount][];
+			for (int s = 0; s < sampleCount; s++) {
+				activePixels[letterIndex][s] = letterData.get(s)
+						.getActivePixels();
+				sampleBits[letterIndex][s] = letterData.get(s).getBits();
+			}
+
+			maxBefore[letterIndex] = new double[sampleCount];
+			maxAfter[letterIndex] = new double[sampleCount];
+			ownOutputs[letterIndex] = new double[sampleCount];
+			rivalOutputs[letterIndex] = new double[sampleCount];
+			runnerUpOutputs[letterIndex] = new double[sampleCount];
+			rivals[letterIndex] = new int[sampleCount];
+			runnerUps[letterIndex] = new int[sampleCount];
+		}
+	}
+
+	/**
+	 * Brings the snapshot up to date with the rows of "weightMatrix". Nothing
+	 * is recomputed if no row changed since the last update. Returns whether
+	 * the snapshot changed.
+	 */
+	public boolean update(WeightMatrix weightMatrix) {
+		int rowCount = weightMatrix.getRowCount();
+		double[] weights = weightMatrix.getWeights();
+
+		if (committed == null)
+			committed = new double[weights.length];
+		else if (!hasChanged(weights))
+			return false;
+
+		System.arraycopy(weights, 0, committed, 0, weights.length);
+
+		double[] sums = new double[rowCount];
+
+		for (int letterIndex = 0; letterIndex < activePixels.length; letterIndex++) {
+			int[][] samples = activePixels[letterIndex];
+
+			for (int s = 0; s < samples.length; s++) {
+				weightMatrix.multiplyActive(samples[s], samples[s].length,
+						sums);
+
+				double before = Double.NEGATIVE_INFINITY;
+				double after = Double.NEGATIVE_INFINITY;
+
+				for (int row = 0; row < letterIndex; row++)
+					before = Math.max(before, sums[row]);
+
+				for (int row = letterIndex + 1; row < rowCount; row++)
+					after = Math.max(after, sums[row]);
+
+				maxBefore[letterIndex][s] = before;
+				maxAfter[letterIndex][s] = after;
+				ownOutputs[letterIndex][s] = sums[letterIndex];
+
+				// The two largest outputs of the other neurons, lowest index
+				// first on ties
+				int rival = -1, runnerUp = -1;
+
+				for (int row = 0; row < rowCount; row++) {
+					if (row == letterIndex)
+						continue;
+
+					if (rival < 0 || sums[row] > sums[rival]) {
+						runnerUp = rival;
+						rival = row;
+					} else if (runnerUp < 0 || sums[row] > sums[runnerUp])
+						runnerUp = row;
+				}
+
+				rivals[letterIndex][s] = rival;
+				runnerUps[letterIndex][s] = runnerUp;
+				rivalOutputs[letterIndex][s] = (rival < 0) ? 0 : sums[rival];
+				runnerUpOutputs[letterIndex][s] = (runnerUp < 0) ? 0
+						: sums[runnerUp];
+			}
+		}
+
+		return true;
+	}
+
+	/** Returns whether any weight differs from the last snapshot. */
+	private boolean hasChanged(double[] weights) {
+		for (int i = 0; i < weights.length; i++)
+			if (weights[i] != committed[i])
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Returns the fraction of the samples of letter "letterIndex" that are
+	 * classified correctly when that letter's neuron has the weights at
+	 * "offset" of "genes". Safe to call from several threads.
+	 */
+	public double score(int letterIndex, double[] genes, int offset) {
+		int[][] samples = activePixels[letterIndex];
+		double[] before = maxBefore[letterIndex];
+		double[] after = maxAfter[letterIndex];
+
+		int numCorrect = 0;
+
+		for (int s = 0; s < samples.length; s++) {
+			int[] sampleActive = samples[s];
+			double sum = 0d;
+
+			for (int i = 0; i < sampleActive.length; i++)
+				sum += genes[offset + sampleActive[i]];
+
+			if (sum > before[s] && sum >= after[s])
+				numCorrect++;
+		}
+
+		return (double) numCorrect / samples.length;
+	}
+
+	/**
+	 * Scores chromosomes "from" to "to" of "genome", the genome of letter
+	 * "letterIndex", stores their fitness in the genome and returns how many
+	 * had to have their outputs computed. Only dirty chromosomes are
+	 * computed; the others reuse the outputs cached in the genome and are
+	 * just compared against the snapshot.
+	 *
+	 * Four rows are computed together, so each set pixel of a sample is read
+	 * once per four chromosomes and the four rows stay in cache while every
+	 * sample of the letter streams past them.
+	 */
+	public int score(int letterIndex, Genome genome, int from, int to) {
+		double[] genes = genome.getGenes();
+		double[] outputs = genome.getOutputs();
+		int chromosomeSize = genome.getChromosomeSize();
+		int[][] samples = activePixels[letterIndex];
+		int sampleCount = samples.length;
+
+		int[] dirty = new int[to - from];
+		int dirtyCount = 0;
+
+		for (int chromosome = from; chromosome < to; chromosome++)
+			if (genome.isDirty(chromosome))
+				dirty[dirtyCount++] = chromosome;
+
+		int k = 0;
+
+		for (; k + 4 <= dirtyCount; k += 4) {
+			int offset0 = dirty[k] * chromosomeSize;
+			int offset1 = dirty[k + 1] * chromosomeSize;
+			int offset2 = dirty[k + 2] * chromosomeSize;
+			int offset3 = dirty[k + 3] * chromosomeSize;
+
+			for (int s = 0; s < sampleCount; s++) {
+				int[] sampleActive = samples[s];
+				double sum0 = 0d, sum1 = 0d, sum2 = 0d, sum3 = 0d;
+
+				for (int i = 0; i < sampleActive.length; i++) {
+					int pixel = sampleActive[i];
+
+					sum0 += genes[offset0 + pixel];
+					sum1 += genes[offset1 + pixel];
+					sum2 += genes[offset2 + pixel];
+					sum3 += genes[offset3 + pixel];
+				}
+
+				outputs[dirty[k] * sampleCount + s] = sum0;
+				outputs[dirty[k + 1] * sampleCount + s] = sum1;
+				outputs[dirty[k + 2] * sampleCount + s] = sum2;
+				outputs[dirty[k + 3] * sampleCount + s] = sum3;
+			}
+		}
+
+		for (; k < dirtyCount; k++) {
+			int offset = dirty[k] * chromosomeSize;
+
+			for (int s = 0; s < sampleCount; s++) {
+				int[] sampleActive = samples[s];
+				double sum = 0d;
+
+				for (int i = 0; i < sampleActive.length; i++)
+					sum += genes[offset + sampleActive[i]];
+
+				outputs[dirty[k] * sampleCount + s] = sum;
+			}
+		}
+
+		double[] before = maxBefore[letterIndex];
+		double[] after = maxAfter[letterIndex];
+
+		for (int chromosome = from; chromosome < to; chromosome++) {
+			int offset = chromosome * sampleCount;
+			int numCorrect = 0;
+
+			for (int s = 0; s < sampleCount; s++) {
+				double sum = outputs[offset + s];
+
+				if (sum > before[s] && sum >= after[s])
+					numCorrect++;
+			}
+
+			genome.setFitness(chromosome, (double) numCorrect / sampleCount);
+			genome.markClean(chromosome);
+		}
+
+		return dirtyCount;
+	}
+
+	/**
+	 * Returns the fraction of a stratified subsample of every letter's
+	 * samples that the network classifies correctly when the neuron of
+	 * "letterIndex" has the weights at "offset" of "genes". The subsample
+	 * takes "samplesPerLetter" consecutive samples of each letter starting at
+	 * "start", wrapping around, so advancing "start" every generation rotates
+	 * through the whole set. Unlike "score" this also counts the other
+	 * letters' samples the candidate would wrongly take over. Safe to call
+	 * from several threads.
+	 */
+	public double scoreSubsample(int letterIndex, double[] genes, int offset,
+			int start, int samplesPerLetter) {
+		int numCorrect = 0, count = 0;
+
+		for (int letter = 0; letter < activePixels.length; letter++) {
+			int[][] samples = activePixels[letter];
+			int sampleCount = Math.min(samplesPerLetter, samples.length);
+
+			for (int j = 0; j < sampleCount; j++) {
+				int s = (start + j) % samples.length;
+				int[] sampleActive = samples[s];
+				double sum = 0d;
+
+				for (int i = 0; i < sampleActive.length; i++)
+					sum += genes[offset + sampleActive[i]];
+
+				if (isCorrect(letter, s, letterIndex, sum))
+					numCorrect++;
+			}
+
+			count += sampleCount;
+		}
+
+		return (double) numCorrect / count;
+	}
+
+	/** Same as "scoreSubsample" over every sample of every letter. */
+	public double scoreAll(int letterIndex, double[] genes, int offset) {
+		int maxSamples = 0;
+		for (int[][] samples : activePixels)
+			maxSamples = Math.max(maxSamples, samples.length);
+
+		return scoreSubsample(letterIndex, genes, offset, 0, maxSamples);
+	}
+
+	/**
+	 * Returns whether sample "s" of letter "letter" is classified correctly
+	 * when the neuron of "candidate" outputs "output" for it.
+	 */
+	private boolean isCorrect(int letter, int s, int candidate, double output) {
+		if (letter == candidate)
+			return output > maxBefore[letter][s] && output >= maxAfter[letter][s];
+
+		// The letter's own neuron has to beat the candidate and the largest
+		// output of the remaining neurons
+		double own = ownOutputs[letter][s];
+
+		if (!beats(letter, own, candidate, output))
+			return false;
+
+		if (rivals[letter][s] != candidate)
+			return rivals[letter][s] < 0
+					|| beats(letter, own, rivals[letter][s],
+							rivalOutputs[letter][s]);
+
+		return runnerUps[letter][s] < 0
+				|| beats(letter, own, runnerUps[letter][s],
+						runnerUpOutputs[letter][s]);
+	}
+
+	/** Returns whether "row" with "output" wins against "other". */
+	private static boolean beats(int row, double output, int other,
+			double otherOutput) {
+		return output > otherOutput || (output == otherOutput && row < other);
+	}
+
+	/**
+	 * Refines the row of letter "letterIndex" at "offset" of "genes" with
+	 * "steps" passes of gradient descent on a logistic loss of the margins
+	 * that decide fitness: on the letter's own samples its output is pushed
+	 * above the largest output of the other neurons, and on the other
+	 * letters' samples below the output of their own neuron. The letters are
+	 * visited in turn, so no letter's samples come in one long run. Only the
+	 * row itself is read and written.
+	 */
+	public void refine(int letterIndex, double[] genes, int offset,
+			int steps, double learningRate) {
+		int maxSamples = 0;
+		for (int[][] samples : activePixels)
+			maxSamples = Math.max(maxSamples, samples.length);
+
+		for (int step = 0; step < steps; step++)
+			for (int s = 0; s < maxSamples; s++)
+				for (int letter = 0; letter < activePixels.length; letter++) {
+					if (s >= activePixels[letter].length)
+						continue;
+
+					int[] sampleActive = activePixels[letter][s];
+					double sum = 0d;
+
+					for (int i = 0; i < sampleActive.length; i++)
+						sum += genes[offset + sampleActive[i]];
+
+					double delta;
+					if (letter == letterIndex)
+						delta = learningRate
+								* (1 - NetworkMath.sigmoid(sum - Math.max(
+										maxBefore[letter][s],
+										maxAfter[letter][s])));
+					else
+						delta = -learningRate
+								* NetworkMath.sigmoid(sum
+										- ownOutputs[letter][s]);
+
+					for (int i = 0; i < sampleActive.length; i++)
+						genes[offset + sampleActive[i]] += delta;
+				}
+	}
+
+	public int getSampleCount(int letterIndex) {
+		return activePixels[letterIndex].length;
+	}
+
+	/** Returns the packed pixels of the samples of letter "letterIndex". */
+	public long[][] getSampleBits(int letterIndex) {
+		return sampleBits[letterIndex];
+	}
+
+}
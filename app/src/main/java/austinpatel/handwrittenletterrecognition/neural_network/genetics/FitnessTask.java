@@ -0,0 +1,58 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: FitnessTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that evaluates a range of chromosome blocks. Each letter's
+ * chromosomes are cut into blocks of "FitnessContext.BLOCK_SIZE" and block
+ * "k" of letter "l" has the flat index "l * blocksPerLetter + k", so work is
+ * split below letter granularity.
+ */
+@SuppressWarnings("serial")
+class FitnessTask extends RecursiveAction {
+
+	private static final int SPLIT_SIZE = 2;
+
+	private final GeneticAlgorithm geneticAlgorithm;
+	private final int from, to;
+
+	FitnessTask(GeneticAlgorithm geneticAlgorithm, int from, int to) {
+		this.geneticAlgorithm = geneticAlgorithm;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > SPLIT_SIZE) {
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new FitnessTask(geneticAlgorithm, from, middle),
+					new FitnessTask(geneticAlgorithm, middle, to));
+			return;
+		}
+
+		int chromosomeCount = geneticAlgorithm.getChromsosomeCount();
+		int blocksPerLetter = getBlocksPerLetter(chromosomeCount);
+
+		for (int i = from; i < to; i++) {
+			int first = (i % blocksPerLetter) * FitnessContext.BLOCK_SIZE;
+
+			geneticAlgorithm.calculateFitness(i / blocksPerLetter, first,
+					Math.min(first + FitnessContext.BLOCK_SIZE, chromosomeCount));
+		}
+	}
+
+	static int getBlocksPerLetter(int chromosomeCount) {
+		return (chromosomeCount + FitnessContext.BLOCK_SIZE - 1)
+				/ FitnessContext.BLOCK_SIZE;
+	}
+
+}
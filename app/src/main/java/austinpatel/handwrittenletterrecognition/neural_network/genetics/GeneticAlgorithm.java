@@ -8,15 +8,17 @@
 
 package austinpatel.handwrittenletterrecognition.neural_network.genetics;
 
-import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 import austinpatel.handwrittenletterrecognition.data.Alphabet;
 import austinpatel.handwrittenletterrecognition.data.Constants;
 import austinpatel.handwrittenletterrecognition.data.ExperimentalData;
-import austinpatel.handwrittenletterrecognition.data.LetterData;
+import austinpatel.handwrittenletterrecognition.math.RandomService;
+import austinpatel.handwrittenletterrecognition.math.RandomStream;
 import austinpatel.handwrittenletterrecognition.neural_network.Experimenter;
 import austinpatel.handwrittenletterrecognition.neural_network.NeuralNetwork;
 import austinpatel.handwrittenletterrecognition.neural_network.NoLearningMethod;
+import austinpatel.handwrittenletterrecognition.neural_network.WeightMatrix;
 
 /**
  * Performs functions for the genetic algorithm (unsupervised learning method).
@@ -42,11 +44,25 @@ public class GeneticAlgorithm {
 	}
 
 	private NeuralNetwork neuralNetwork;
-	private Genome<Double>[] genomes;
+	private Genome[] genomes;
+	private Genome[][] islands;
+	private int islandCount = 1, migrationInterval = 1, migrantCount;
+	private IslandTopology topology = IslandTopology.RING;
 	private Experimenter experimenter;
-	private ArrayList<LetterData[]> experimentalLetterData;
+	private FitnessContext fitnessContext;
+	private int skippedEvaluations;
+	private long totalSkippedEvaluations;
 	private int chromsosomeCount, generationCount;
 	private double breedRate, deathRate;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private int stagnationWindow;
+	private boolean adaptiveRates;
+	private double minImprovement, targetFitness = Double.POSITIVE_INFINITY;
+	private long timeBudget, startTime = -1;
+	private double[] windowFitness;
+	private int[] stagnantGenerations;
+	private int samplesPerLetter, eliteCount, subsampleStart;
+	private ForkJoinPool pool;
 
 	public GeneticAlgorithm(int chromosomeCount, int generationCount,
 			double breedRate, double deathRate) {
@@ -62,23 +78,14 @@ public class GeneticAlgorithm {
 
 		genomes = new Genome[neuralNetwork.getNeurons().length];
 		experimenter = new Experimenter(neuralNetwork);
+		fitnessContext = new FitnessContext(experimenter, genomes.length);
 
 		// Initialize each genome
 		for (int i = 0; i < genomes.length; i++)
-			genomes[i] = new Genome<Double>(chromsosomeCount,
-					Constants.GRID_WIDTH * Constants.GRID_HEIGHT, breedRate,
-					deathRate);
+			genomes[i] = createGenome(i, 0);
 
-		// Load all experimental letters
-		experimentalLetterData = new ArrayList<LetterData[]>();
-
-		for (char c : Alphabet.getAlphabet().toCharArray()) {
-			String filePath = Constants.RESOURCES_PATH
-					+ Constants.EXPERIMENTAL_LETTERS_FOLDER + "\\" + c + ".txt";
-			LetterData[] currentLetterData = LetterData.getLetterData(c);
-
-			experimentalLetterData.add(currentLetterData);
-		}
+		createIslands();
+		resetConvergence();
 
 		// beginEvolution();
 
@@ -86,74 +93,603 @@ public class GeneticAlgorithm {
 		// experimenter.testNetwork(experimenter.getExperimentalData());		
 	}
 
+	/**
+	 * Creates island "island" of letter "letterIndex". Its random stream is
+	 * named after the letter and island, so runs with the same seed evolve
+	 * the same way however the work is scheduled.
+	 */
+	private Genome createGenome(int letterIndex, int island) {
+		RandomStream random = RandomService.stream(
+				RandomService.GENOME_STREAM, ((long) letterIndex << 32)
+						| island);
+		Genome genome = new Genome(chromsosomeCount, Constants.GRID_WIDTH
+				* Constants.GRID_HEIGHT, breedRate, deathRate, random);
+		genome.setSamples(fitnessContext.getSampleBits(letterIndex));
+		genome.setAdaptiveRates(adaptiveRates);
+
+		return genome;
+	}
+
+	/**
+	 * Creates the islands of every letter. The first island of each letter is
+	 * the letter's genome.
+	 */
+	private void createIslands() {
+		islands = new Genome[genomes.length][islandCount];
+
+		for (int letterIndex = 0; letterIndex < genomes.length; letterIndex++) {
+			islands[letterIndex][0] = genomes[letterIndex];
+
+			for (int i = 1; i < islandCount; i++)
+				islands[letterIndex][i] = createGenome(letterIndex, i);
+		}
+	}
+
+	/**
+	 * Switches to the island model: each letter evolves "islandCount"
+	 * independent populations. Every call to "nextGeneration" then advances
+	 * every island by "migrationInterval" generations without the islands
+	 * waiting for each other, after which the best chromosome of each letter
+	 * is committed and each island sends copies of its "migrantCount" best
+	 * chromosomes to its neighbours in "topology", replacing their least fit.
+	 * An island count of 1 restores the single population.
+	 */
+	public void setIslands(int islandCount, int migrationInterval,
+			int migrantCount, IslandTopology topology) {
+		if (islandCount < 1 || migrationInterval < 1 || migrantCount < 0
+				|| topology == null)
+			throw new IllegalArgumentException("Invalid island model: "
+					+ islandCount + " islands, interval " + migrationInterval
+					+ ", " + migrantCount + " migrants, topology " + topology);
+
+		this.islandCount = islandCount;
+		this.migrationInterval = migrationInterval;
+		this.migrantCount = migrantCount;
+		this.topology = topology;
+
+		if (neuralNetwork != null) {
+			createIslands();
+			resetConvergence();
+		}
+	}
+
 	/**
 	 * Evaluates the fitness of each "Chromosome" in each "Genome" (letter) and
 	 * then evolve them by breeding the most fit.
 	 */
 	public void beginEvolution() {
-		for (int generation = 0; generation < generationCount; generation++) {
+		int step = getGenerationsPerCycle();
+
+		for (int generation = 0; generation < generationCount
+				&& !isFinished(); generation += step) {
 			// System.out.println("GENERATION #" + (generation + 1));
 			nextGeneration();
 		}
+
+		shutdown();
 	}
 
 	/**
-	 * Simulates a generation of evolution for each genome. Utilizes
-	 * multithreading for increased performance.
+	 * Simulates a generation of evolution for each genome. The network's
+	 * outputs are snapshot into the "FitnessContext", the fitness of every
+	 * chromosome is evaluated against it in parallel on the algorithm's pool,
+	 * the fittest chromosome of each genome is written into the network and
+	 * then every genome is bred. Only new chromosomes have their outputs
+	 * computed; see "getSkippedEvaluations".
 	 */
 	public void nextGeneration() {
-//		long startTime = System.currentTimeMillis();
-		// System.out.println("B" + startTime);
-		// Calculate fitness values
-		// Per neuron/letter
-		Thread[] workers = new Thread[neuralNetwork.getNeurons().length];
+		if (islandCount > 1) {
+			nextIslandCycle();
+			return;
+		}
 
-		for (int letterIndex = 0; letterIndex < genomes.length; letterIndex++) {
-			final int letterIndexFinal = letterIndex;
+		ForkJoinPool pool = getPool();
+
+		updateFitnessContext();
+
+		skippedEvaluations = 0;
+		for (Genome genome : genomes)
+			skippedEvaluations += getSkippedEvaluations(genome);
+
+		totalSkippedEvaluations += skippedEvaluations;
+
+		pool.invoke(new FitnessTask(this, 0, genomes.length
+				* FitnessTask.getBlocksPerLetter(chromsosomeCount)));
 
-			workers[letterIndex] = new Thread(new Runnable() {
-				@Override
-				public void run() {
-					Genome<Double> genome = genomes[letterIndexFinal];
+		commitWeights();
+		updateConvergence(1);
+		subsampleStart += samplesPerLetter;
+
+		pool.invoke(new BreedTask(genomes, 0, genomes.length));
+	}
+
+	/**
+	 * Advances every island by "migrationInterval" generations against the
+	 * same snapshot, commits the best chromosome of each letter over all of
+	 * its islands and migrates.
+	 */
+	private void nextIslandCycle() {
+		updateFitnessContext();
 
-					for (Chromosome<Double> chromosome : genome
-							.getChromosomes())
-						calculateFitness(chromosome, letterIndexFinal);
+		int[] skipped = new int[islands.length * islandCount];
+		getPool().invoke(new IslandTask(this, 0, skipped.length,
+				migrationInterval, skipped));
 
-					genome.nextGeneration();
+		if (samplesPerLetter > 0)
+			commitBestElites();
+
+		skippedEvaluations = 0;
+		for (int count : skipped)
+			skippedEvaluations += count;
+
+		totalSkippedEvaluations += skippedEvaluations;
+
+		for (int letterIndex = 0; letterIndex < islands.length; letterIndex++) {
+			if (islands[letterIndex][0].isConverged())
+				continue;
+
+			if (samplesPerLetter == 0)
+				commitBest(letterIndex, islands[letterIndex]);
+
+			migrate(islands[letterIndex]);
+		}
+
+		updateConvergence(migrationInterval);
+		subsampleStart += samplesPerLetter;
+	}
+
+	/**
+	 * Stops letters from evolving once they converge: when their best
+	 * fitness reaches the target fitness, or has not improved by more than
+	 * the minimum improvement over a whole stagnation window. Converged
+	 * letters keep their committed weights, and evolve again if the other
+	 * letters' progress lowers the fitness of those weights.
+	 */
+	private void updateConvergence(int generations) {
+		if (startTime < 0)
+			startTime = System.currentTimeMillis();
+
+		for (int letterIndex = 0; letterIndex < islands.length; letterIndex++) {
+			Genome[] letterIslands = islands[letterIndex];
+
+			if (letterIslands[0].isConverged()) {
+				// Wake the letter up if the other letters have overtaken it
+				WeightMatrix weightMatrix = neuralNetwork.getWeightMatrix();
+				double[] weights = weightMatrix.getWeights();
+				int offset = weightMatrix.getOffset(letterIndex);
+				double fitness = (samplesPerLetter > 0) ? fitnessContext
+						.scoreAll(letterIndex, weights, offset) : fitnessContext
+						.score(letterIndex, weights, offset);
+
+				if (fitness < windowFitness[letterIndex] - minImprovement) {
+					stagnantGenerations[letterIndex] = 0;
+					windowFitness[letterIndex] = fitness;
+
+					for (Genome genome : letterIslands)
+						genome.setConverged(false);
 				}
-			});
 
-			workers[letterIndexFinal].start();
+				continue;
+			}
+
+			double best = 0;
+			for (Genome genome : letterIslands)
+				for (int i = 0; i < chromsosomeCount; i++)
+					best = Math.max(best, genome.getFitness(i));
+
+			// Fitness is measured against the other letters' current weights,
+			// so it is only compared with the start of the current window
+			stagnantGenerations[letterIndex] += generations;
+
+			boolean stagnant = false;
+			if (stagnantGenerations[letterIndex] >= stagnationWindow) {
+				stagnant = stagnationWindow > 0
+						&& best <= windowFitness[letterIndex] + minImprovement;
+
+				windowFitness[letterIndex] = best;
+				stagnantGenerations[letterIndex] = 0;
+			}
+
+			if (stagnant || best >= targetFitness) {
+				// The wake-up check compares against the fitness at convergence,
+				// also when the target is reached in the middle of a window
+				windowFitness[letterIndex] = best;
+
+				for (Genome genome : letterIslands)
+					genome.setConverged(true);
+			}
 		}
+	}
+
+	/**
+	 * Returns whether evolution is over: every letter has converged or the
+	 * time budget is spent.
+	 */
+	public boolean isFinished() {
+		if (timeBudget > 0 && startTime >= 0
+				&& System.currentTimeMillis() - startTime >= timeBudget)
+			return true;
+
+		return getConvergedCount() == islands.length;
+	}
+
+	/** Returns how many letters have converged. */
+	public int getConvergedCount() {
+		int count = 0;
+
+		for (Genome[] letterIslands : islands)
+			if (letterIslands[0].isConverged())
+				count++;
+
+		return count;
+	}
+
+	/**
+	 * Letters converge once their best fitness has not improved by more than
+	 * "minImprovement" for "generations" generations. A window of 0 disables
+	 * the check.
+	 */
+	public void setStagnationWindow(int generations, double minImprovement) {
+		this.stagnationWindow = generations;
+		this.minImprovement = minImprovement;
+	}
 
-		try {
-			for (Thread thread : workers)
-				thread.join();
-		} catch (Exception e) {
-			e.printStackTrace();
+	/** Letters converge once their best fitness reaches "targetFitness". */
+	public void setTargetFitness(double targetFitness) {
+		this.targetFitness = targetFitness;
+	}
+
+	/**
+	 * Evolution finishes once "millis" milliseconds have passed since the
+	 * first generation. A budget of 0 disables the limit.
+	 */
+	public void setTimeBudget(long millis) {
+		this.timeBudget = millis;
+	}
+
+	/**
+	 * Sets whether each genome's breed rate and mutation count follow its
+	 * diversity; see "Genome.setAdaptiveRates".
+	 */
+	public void setAdaptiveRates(boolean adaptiveRates) {
+		this.adaptiveRates = adaptiveRates;
+
+		if (islands == null)
+			return;
+
+		for (Genome[] letterIslands : islands)
+			for (Genome genome : letterIslands)
+				genome.setAdaptiveRates(adaptiveRates);
+	}
+
+	/**
+	 * Switches to stochastic fitness: each generation scores the chromosomes
+	 * on "samplesPerLetter" samples of every letter instead of on all of the
+	 * letter's own samples, as the accuracy of the whole subsample with the
+	 * chromosome in place of the letter's neuron. The subsample moves on by
+	 * "samplesPerLetter" samples every cycle, so over several cycles every
+	 * sample is used. Before committing, the "eliteCount" fittest chromosomes
+	 * of each island are scored again on every sample and the best of them
+	 * is committed. A sample count of 0 restores the full fitness.
+	 */
+	public void setStochasticFitness(int samplesPerLetter, int eliteCount) {
+		if (samplesPerLetter < 0 || (samplesPerLetter > 0 && eliteCount < 1))
+			throw new IllegalArgumentException("Invalid stochastic fitness: "
+					+ samplesPerLetter + " samples per letter, " + eliteCount
+					+ " elites");
+
+		this.samplesPerLetter = samplesPerLetter;
+		this.eliteCount = eliteCount;
+		subsampleStart = 0;
+
+		// Subsample and full fitness are not comparable, and the cached
+		// outputs are not kept up to date while subsampling
+		if (islands != null)
+			for (Genome[] letterIslands : islands)
+				for (Genome genome : letterIslands) {
+					genome.markAllDirty();
+
+					for (int i = 0; i < chromsosomeCount; i++)
+						genome.setFitness(i, 0);
+				}
+	}
+
+	/** Lets every letter evolve again and restarts the time budget. */
+	public void resetConvergence() {
+		windowFitness = new double[islands.length];
+		stagnantGenerations = new int[islands.length];
+		startTime = -1;
+
+		for (Genome[] letterIslands : islands)
+			for (Genome genome : letterIslands)
+				genome.setConverged(false);
+	}
+
+	/**
+	 * Copies the best chromosomes of each island into the least fit
+	 * chromosomes of its neighbours. Migrants are copied out before any
+	 * island is changed, so the result does not depend on island order.
+	 */
+	private void migrate(Genome[] letterIslands) {
+		int count = Math.min(migrantCount, chromsosomeCount);
+		int size = letterIslands[0].getChromosomeSize();
+		double[][] migrants = new double[islandCount][count * size];
+
+		for (int i = 0; i < islandCount; i++) {
+			Genome island = letterIslands[i];
+			int[] order = island.rank();
+
+			for (int m = 0; m < count; m++)
+				System.arraycopy(island.getGenes(), order[chromsosomeCount
+						- 1 - m] * size, migrants[i], m * size, size);
+		}
+
+		for (int i = 0; i < islandCount; i++) {
+			Genome island = letterIslands[i];
+			int[] order = island.rank();
+			int replaced = 0;
+
+			for (int source = 0; source < islandCount; source++) {
+				if (!isNeighbour(source, i))
+					continue;
+
+				for (int m = 0; m < count && replaced < chromsosomeCount; m++)
+					island.replace(order[replaced++], migrants[source], m
+							* size);
+			}
+		}
+	}
+
+	/** Returns whether island "source" sends migrants to island "target". */
+	private boolean isNeighbour(int source, int target) {
+		if (topology == IslandTopology.RING)
+			return (source + 1) % islandCount == target;
+
+		return source != target;
+	}
+
+	/**
+	 * Refines the "eliteCount" fittest chromosomes of every island that has
+	 * not converged with "steps" passes of backpropagation, in parallel on
+	 * the algorithm's pool. The refined chromosomes stay in their population
+	 * and are scored again in the next generation.
+	 */
+	public void refineElites(int eliteCount, int steps, double learningRate) {
+		getPool().invoke(new RefineTask(this, 0, islands.length * islandCount,
+				eliteCount, steps, learningRate));
+	}
+
+	void refineElites(int letterIndex, int island, int eliteCount, int steps,
+			double learningRate) {
+		Genome genome = islands[letterIndex][island];
+
+		if (genome.isConverged())
+			return;
+
+		int[] order = genome.rank();
+		int size = genome.getChromosomeSize();
+
+		for (int e = 0; e < Math.min(eliteCount, chromsosomeCount); e++) {
+			int chromosome = order[chromsosomeCount - 1 - e];
+
+			fitnessContext.refine(letterIndex, genome.getGenes(), chromosome
+					* size, steps, learningRate);
+			genome.markDirty(chromosome);
+		}
+	}
+
+	/**
+	 * Returns how many generations each call to "nextGeneration" advances:
+	 * the migration interval in the island model, otherwise 1.
+	 */
+	public int getGenerationsPerCycle() {
+		return (islandCount > 1) ? migrationInterval : 1;
+	}
+
+	public int getIslandCount() {
+		return islandCount;
+	}
+
+	Genome getIsland(int letterIndex, int island) {
+		return islands[letterIndex][island];
+	}
+
+	/** Snapshots the network's current outputs for fitness evaluation. */
+	void updateFitnessContext() {
+		fitnessContext.update(neuralNetwork.getWeightMatrix());
+	}
+
+	/**
+	 * Evaluates the fitness of chromosomes "from" to "to" of the genome of
+	 * letter "letterIndex" against the current "FitnessContext". Only the
+	 * chromosomes' own rows are computed and nothing shared is written, so
+	 * ranges can be evaluated concurrently.
+	 */
+	void calculateFitness(int letterIndex, int from, int to) {
+		if (genomes[letterIndex].isConverged())
+			return;
+
+		if (samplesPerLetter > 0)
+			scoreSubsample(letterIndex, genomes[letterIndex], from, to);
+		else
+			fitnessContext.score(letterIndex, genomes[letterIndex], from, to);
+	}
+
+	/** Scores every chromosome of "genome", the genome of "letterIndex". */
+	void calculateFitness(int letterIndex, Genome genome) {
+		if (genome.isConverged())
+			return;
+
+		if (samplesPerLetter > 0)
+			scoreSubsample(letterIndex, genome, 0, genome.getChromosomeCount());
+		else
+			fitnessContext.score(letterIndex, genome, 0,
+					genome.getChromosomeCount());
+	}
+
+	/**
+	 * Scores chromosomes "from" to "to" of "genome" on the current subsample.
+	 * The cached outputs are bypassed, so the chromosomes stay dirty.
+	 */
+	private void scoreSubsample(int letterIndex, Genome genome, int from,
+			int to) {
+		double[] genes = genome.getGenes();
+		int size = genome.getChromosomeSize();
+
+		for (int i = from; i < to; i++)
+			genome.setFitness(i, fitnessContext.scoreSubsample(letterIndex,
+					genes, i * size, subsampleStart, samplesPerLetter));
+	}
+
+	/**
+	 * Writes the fittest chromosome of each genome into the network. With
+	 * stochastic fitness the elites are first scored on every sample.
+	 */
+	public void commitWeights() {
+		if (samplesPerLetter > 0) {
+			commitBestElites();
+			return;
 		}
 
-//		System.out.println((System.currentTimeMillis() - startTime));
+		for (int letterIndex = 0; letterIndex < genomes.length; letterIndex++)
+			if (!genomes[letterIndex].isConverged())
+				commitBest(letterIndex, new Genome[] { genomes[letterIndex] });
+	}
+
+	/**
+	 * Writes the fittest chromosome of "candidates" into the neuron of
+	 * "letterIndex". Ties go to the earlier genome and chromosome.
+	 */
+	private void commitBest(int letterIndex, Genome[] candidates) {
+		Genome bestGenome = candidates[0];
+		int best = 0;
+
+		for (Genome genome : candidates)
+			for (int i = 0; i < genome.getChromosomeCount(); i++)
+				if (genome.getFitness(i) > bestGenome.getFitness(best)) {
+					bestGenome = genome;
+					best = i;
+				}
+
+		neuralNetwork.getNeurons()[letterIndex].setWeights(
+				bestGenome.getGenes(), best * bestGenome.getChromosomeSize());
+	}
+
+	/**
+	 * Commits the best elite of every letter that has not converged, one
+	 * letter per task on the algorithm's pool.
+	 */
+	private void commitBestElites() {
+		getPool().invoke(new EliteTask(this, 0, islands.length));
+	}
+
+	/**
+	 * Scores the "eliteCount" fittest chromosomes of each island of
+	 * "letterIndex" on every sample, keeps that as their fitness and commits
+	 * the best of them. Ties go to the earlier island and the fitter
+	 * subsample score.
+	 */
+	void commitBestElite(int letterIndex) {
+		Genome[] candidates = islands[letterIndex];
+
+		if (candidates[0].isConverged())
+			return;
+
+		int count = Math.min(eliteCount, chromsosomeCount);
+		int[] elites = new int[count];
+		Genome bestGenome = null;
+		int best = 0;
+		double bestFitness = Double.NEGATIVE_INFINITY;
+
+		for (Genome genome : candidates) {
+			int[] order = genome.rank();
+			int size = genome.getChromosomeSize();
+
+			// Copy the ranks out, since setting fitness changes them
+			for (int e = 0; e < count; e++)
+				elites[e] = order[chromsosomeCount - 1 - e];
+
+			for (int chromosome : elites) {
+				double fitness = fitnessContext.scoreAll(letterIndex,
+						genome.getGenes(), chromosome * size);
+				genome.setFitness(chromosome, fitness);
+
+				if (fitness > bestFitness) {
+					bestGenome = genome;
+					best = chromosome;
+					bestFitness = fitness;
+				}
+			}
+		}
+
+		neuralNetwork.getNeurons()[letterIndex].setWeights(
+				bestGenome.getGenes(), best * bestGenome.getChromosomeSize());
+	}
+
+	/** Returns the pool, creating it if it does not exist yet. */
+	private synchronized ForkJoinPool getPool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
+
+		return pool;
 	}
 
-	/** Evaluates the fitness of a specific chromosome. */
-	private void calculateFitness(Chromosome<Double> chromosome,
-			int letterIndex) {
-		// Set the weights of the current neuron
-		double[] weights = new double[chromosome.size()];
+	/**
+	 * Sets how many worker threads evaluate and breed chromosomes. Takes
+	 * effect the next time the pool is created.
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: "
+					+ parallelism);
 
-		for (int i = 0; i < weights.length; i++)
-			weights[i] = chromosome.get(i);
+		if (parallelism != this.parallelism)
+			shutdown();
 
-		neuralNetwork.getNeurons()[letterIndex].setWeights(weights);
+		this.parallelism = parallelism;
+	}
 
-		// Evaluate the fitness
-		double fitness = experimenter
-				.testLetter(Alphabet.getCharacter(letterIndex));
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Stops the worker threads. A later generation creates a new pool, so
+	 * this is safe to call whenever evolution pauses.
+	 */
+	public synchronized void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Returns how many chromosomes the last generation did not have to
+	 * compute the outputs of because they survived from the generation
+	 * before. Their cached outputs were reused. With islands this covers
+	 * every generation of every island in the last migration cycle.
+	 */
+	public int getSkippedEvaluations() {
+		return skippedEvaluations;
+	}
+
+	/**
+	 * Returns how many chromosomes of "genome" the next fitness evaluation
+	 * reuses the cached outputs of; none with stochastic fitness.
+	 */
+	int getSkippedEvaluations(Genome genome) {
+		return (samplesPerLetter > 0) ? 0 : genome.getChromosomeCount()
+				- genome.getDirtyCount();
+	}
+
+	/** Returns the skipped evaluations over every generation. */
+	public long getTotalSkippedEvaluations() {
+		return totalSkippedEvaluations;
+	}
 
-		// Set the chromosomes fitness
-		chromosome.setFitness(fitness);
+	public Genome[] getGenomes() {
+		return genomes;
 	}
 
 	public int getChromsosomeCount() {
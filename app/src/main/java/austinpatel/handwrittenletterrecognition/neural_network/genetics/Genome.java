@@ -1,4 +1,3 @@
-
 /**
  * Author: Austin Patel
  * Project: Handwritten Recognition
@@ -10,67 +9,370 @@ package austinpatel.handwrittenletterrecognition.neural_network.genetics;
 
 import java.util.Arrays;
 
-/** Simulates a genome and genetic evolutionary algorithms. */
-public class Genome<E> {
+import austinpatel.handwrittenletterrecognition.math.RandomService;
+import austinpatel.handwrittenletterrecognition.math.RandomStream;
+
+/**
+ * Simulates a genome and genetic evolutionary algorithms. The population is
+ * one primitive matrix of "chromosomeCount x chromosomeSize" genes. Each
+ * generation is written into a spare matrix that is then swapped in, so
+ * evolving allocates nothing.
+ *
+ * Each chromosome can also cache its outputs for the letter's samples. A
+ * chromosome is dirty until its outputs are computed and only children and
+ * replaced chromosomes become dirty again. The cached outputs of the others
+ * move with them from generation to generation, and a mutation of one of
+ * them patches its outputs for the samples that have the mutated pixel set.
+ */
+public class Genome {
 
-	private Chromosome<E>[] chromosomes;
+	/** Standard deviation of genes drawn uniformly from [-0.5, 0.5). */
+	private static final double RANDOM_DIVERSITY = 1 / Math.sqrt(12);
+
+	private double[] genes, spareGenes;
+	private double[] fitness, spareFitness;
+	private boolean[] dirty, spareDirty;
+	private double[] outputs, spareOutputs;
+	private long[][] samples;
+	private int sampleCount;
+	private RandomStream random;
+	private boolean converged, adaptiveRates;
+	private double[] geneMeans;
+	private int[] order;
+	private Chromosome[] chromosomes;
 	private double breedRate, deathRate;
-	private int chromosomeSize;
+	private int chromosomeCount, chromosomeSize;
 
 	public Genome(int chromosomeCount, int chromosomeSize, double breedRate,
 			double deathRate) {
-		chromosomes = new Chromosome[chromosomeCount];
+		this(chromosomeCount, chromosomeSize, breedRate, deathRate,
+				RandomService.current().split());
+	}
 
+	/**
+	 * Creates a genome that draws all of its random numbers from "random", so
+	 * its evolution can be replayed.
+	 */
+	public Genome(int chromosomeCount, int chromosomeSize, double breedRate,
+			double deathRate, RandomStream random) {
+		this.random = random;
+		this.chromosomeCount = chromosomeCount;
+		this.chromosomeSize = chromosomeSize;
 		this.breedRate = breedRate;
 		this.deathRate = deathRate;
-		this.chromosomeSize = chromosomeSize;
 
-		generateChromosomes(chromosomeSize);
+		genes = new double[chromosomeCount * chromosomeSize];
+		spareGenes = new double[genes.length];
+		fitness = new double[chromosomeCount];
+		spareFitness = new double[chromosomeCount];
+		dirty = new boolean[chromosomeCount];
+		spareDirty = new boolean[chromosomeCount];
+		order = new int[chromosomeCount];
+
+		chromosomes = new Chromosome[chromosomeCount];
+		for (int i = 0; i < chromosomeCount; i++)
+			chromosomes[i] = new Chromosome(this, i);
+
+		generateChromosomes();
 	}
 
 	/**
 	 * Simulates an entire generation of evolution occurring with breeding
-	 * procedures.
+	 * procedures. Does nothing once the genome has converged.
 	 */
 	public void nextGeneration() {
-		// Breed the best chromosomes
-		Arrays.sort(chromosomes);
+		if (converged)
+			return;
+
+		int n = chromosomeCount;
+		double breedRate = this.breedRate;
+		int mutationCount = n * 4;
+
+		// Less diverse populations breed less, since crossing similar parents
+		// changes little, and mutate more to regain diversity
+		if (adaptiveRates) {
+			double ratio = Math.min(1, getDiversity() / RANDOM_DIVERSITY);
+
+			breedRate *= 0.5 + 0.5 * ratio;
+			mutationCount = (int) Math.round(n * 4 * (1.5 - ratio));
+		}
+
+		// Rank the chromosomes from least to most fit
+		sortByFitness(fitness);
+
+		// Breed the best chromosomes. Children replace the least fit and may
+		// themselves be bred later in the same generation.
+		int breedCount = 0;
+		for (int i = 0; i < n * breedRate; i++)
+			if (n - i - 2 >= 0) {
+				int mother = n - i - 1, father = n - i - 2;
 
-		// Breed the best chromosomes
-		for (int i = 0; i < chromosomes.length * breedRate; i++)
-			if (chromosomes.length - i - 2 >= 0)
-				chromosomes[i] = chromosomes[chromosomes.length - i - 1]
-						.cross(chromosomes[chromosomes.length - i - 2]);
+				Chromosome.cross(
+						(mother < i) ? spareGenes : genes, offsetOf(mother, i),
+						(father < i) ? spareGenes : genes, offsetOf(father, i),
+						spareGenes, i * chromosomeSize, chromosomeSize, random);
+				spareFitness[i] = 0;
+				spareDirty[i] = true;
+
+				breedCount = i + 1;
+			}
+
+		// The remaining chromosomes survive unchanged
+		for (int i = breedCount; i < n; i++) {
+			System.arraycopy(genes, order[i] * chromosomeSize, spareGenes,
+					i * chromosomeSize, chromosomeSize);
+			spareFitness[i] = fitness[order[i]];
+			spareDirty[i] = dirty[order[i]];
+
+			if (outputs != null)
+				System.arraycopy(outputs, order[i] * sampleCount,
+						spareOutputs, i * sampleCount, sampleCount);
+		}
 
 		// Mutate
-		for (int i = 0; i < chromosomes.length * 4; i++)
-			chromosomes[(int) (Math.random() * chromosomes.length)].mutate();
+		for (int i = 0; i < mutationCount; i++) {
+			int chromosome = random.nextInt(n);
+			int gene = random.nextInt(chromosomeSize);
+
+			double change = Chromosome.mutate(spareGenes, chromosome
+					* chromosomeSize + gene, random);
+
+			if (!spareDirty[chromosome])
+				patchOutputs(chromosome, gene, change);
+		}
 
 		if (deathRate != 0) {
-			Arrays.sort(chromosomes);
-			for (int i = 0; i < chromosomes.length * deathRate; i++)
-				chromosomes[i] = new Chromosome<E>(
-						(E[]) randomValues(chromosomeSize));
+			sortByFitness(spareFitness);
+			for (int i = 0; i < n * deathRate; i++) {
+				randomValues(spareGenes, order[i] * chromosomeSize);
+				spareFitness[order[i]] = 0;
+				spareDirty[order[i]] = true;
+			}
+		}
+
+		double[] swap = genes;
+		genes = spareGenes;
+		spareGenes = swap;
+
+		swap = fitness;
+		fitness = spareFitness;
+		spareFitness = swap;
+
+		boolean[] swapDirty = dirty;
+		dirty = spareDirty;
+		spareDirty = swapDirty;
+
+		swap = outputs;
+		outputs = spareOutputs;
+		spareOutputs = swap;
+	}
+
+	/**
+	 * Returns the population's diversity: the standard deviation of each gene
+	 * over the chromosomes, averaged over the genes. Randomly created genes
+	 * have a diversity of about 0.29.
+	 */
+	public double getDiversity() {
+		if (geneMeans == null)
+			geneMeans = new double[chromosomeSize];
+
+		Arrays.fill(geneMeans, 0d);
+
+		for (int offset = 0; offset < genes.length; offset += chromosomeSize)
+			for (int k = 0; k < chromosomeSize; k++)
+				geneMeans[k] += genes[offset + k];
+
+		for (int k = 0; k < chromosomeSize; k++)
+			geneMeans[k] /= chromosomeCount;
+
+		double deviation = 0;
+
+		for (int k = 0; k < chromosomeSize; k++) {
+			double variance = 0;
+
+			for (int offset = k; offset < genes.length; offset += chromosomeSize) {
+				double difference = genes[offset] - geneMeans[k];
+				variance += difference * difference;
+			}
+
+			deviation += Math.sqrt(variance / chromosomeCount);
+		}
+
+		return deviation / chromosomeSize;
+	}
+
+	/**
+	 * Sets whether the breed rate and mutation count follow the population's
+	 * diversity. With a diversity of 0 the genome breeds at half its breed
+	 * rate and makes 1.5 times the usual mutations; at the diversity of
+	 * random genes it breeds at its full rate and makes half of them.
+	 */
+	public void setAdaptiveRates(boolean adaptiveRates) {
+		this.adaptiveRates = adaptiveRates;
+	}
+
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/** A converged genome no longer evolves or needs to be scored. */
+	public void setConverged(boolean converged) {
+		this.converged = converged;
+	}
+
+	/**
+	 * Returns the chromosome indices from least to most fit. The array is
+	 * reused by the next call and by "nextGeneration".
+	 */
+	int[] rank() {
+		sortByFitness(fitness);
+
+		return order;
+	}
+
+	/**
+	 * Replaces chromosome "chromosome" with the genes at "offset" of "source"
+	 * and marks it dirty.
+	 */
+	void replace(int chromosome, double[] source, int offset) {
+		System.arraycopy(source, offset, genes, chromosome * chromosomeSize,
+				chromosomeSize);
+		fitness[chromosome] = 0;
+		dirty[chromosome] = true;
+	}
+
+	/**
+	 * Adds "change" to the cached outputs of chromosome "chromosome" of the
+	 * next generation for every sample that has pixel "gene" set.
+	 */
+	private void patchOutputs(int chromosome, int gene, double change) {
+		int offset = chromosome * sampleCount;
+		int word = gene >> 6;
+		long mask = 1L << gene;
+
+		for (int s = 0; s < sampleCount; s++)
+			if ((samples[s][word] & mask) != 0)
+				spareOutputs[offset + s] += change;
+	}
+
+	/**
+	 * Returns the offset of ranked chromosome "rank" while position "bred" is
+	 * being bred: ranks below "bred" have already been replaced by children
+	 * in the spare matrix.
+	 */
+	private int offsetOf(int rank, int bred) {
+		return ((rank < bred) ? rank : order[rank]) * chromosomeSize;
+	}
+
+	/**
+	 * Fills "order" with the chromosome indices from least to most fit. The
+	 * sort is stable, so equally fit chromosomes keep their order.
+	 */
+	private void sortByFitness(double[] fitness) {
+		for (int i = 0; i < order.length; i++) {
+			int index = i;
+			int position = i;
+
+			while (position > 0 && fitness[order[position - 1]] > fitness[index]) {
+				order[position] = order[position - 1];
+				position--;
+			}
+
+			order[position] = index;
 		}
 	}
 
-	public Chromosome<E>[] getChromosomes() {
+	public Chromosome[] getChromosomes() {
 		return chromosomes;
 	}
 
-	/** Creates each chromosome in the genome with random values. */
-	private void generateChromosomes(int chromosomeSize) {
-		for (int i = 0; i < chromosomes.length; i++)
-			chromosomes[i] = new Chromosome(randomValues(chromosomeSize));
+	/** Returns the current population matrix. */
+	public double[] getGenes() {
+		return genes;
+	}
+
+	public double getFitness(int chromosome) {
+		return fitness[chromosome];
+	}
+
+	public void setFitness(int chromosome, double fitness) {
+		this.fitness[chromosome] = fitness;
+	}
+
+	/**
+	 * Sets the packed pixels of the samples the chromosomes are scored on,
+	 * makes room to cache an output per sample and marks every chromosome
+	 * dirty.
+	 */
+	void setSamples(long[][] samples) {
+		this.samples = samples;
+		this.sampleCount = samples.length;
+
+		outputs = new double[chromosomeCount * sampleCount];
+		spareOutputs = new double[outputs.length];
+		markAllDirty();
+	}
+
+	/**
+	 * Returns the cached outputs. Those of chromosome "c" for sample "s" are
+	 * at "c * getSampleCount() + s".
+	 */
+	double[] getOutputs() {
+		return outputs;
+	}
+
+	int getSampleCount() {
+		return sampleCount;
+	}
+
+	/** Returns whether the chromosome's cached outputs are out of date. */
+	public boolean isDirty(int chromosome) {
+		return dirty[chromosome];
+	}
+
+	/** Marks the chromosome's cached outputs as up to date. */
+	void markClean(int chromosome) {
+		dirty[chromosome] = false;
 	}
 
-	private Double[] randomValues(int size) {
-		Double[] values = new Double[size];
+	/** Marks the chromosome's cached outputs as out of date. */
+	void markDirty(int chromosome) {
+		dirty[chromosome] = true;
+	}
+
+	/** Marks every chromosome's cached outputs as out of date. */
+	public void markAllDirty() {
+		Arrays.fill(dirty, true);
+	}
+
+	public int getDirtyCount() {
+		int count = 0;
+
+		for (boolean d : dirty)
+			if (d)
+				count++;
+
+		return count;
+	}
 
-		for (int k = 0; k < size; k++)
-			values[k] = Math.random() - 0.5;
+	public int getChromosomeCount() {
+		return chromosomeCount;
+	}
+
+	public int getChromosomeSize() {
+		return chromosomeSize;
+	}
+
+	/** Creates each chromosome in the genome with random values. */
+	private void generateChromosomes() {
+		for (int i = 0; i < chromosomeCount; i++)
+			randomValues(genes, i * chromosomeSize);
+
+		markAllDirty();
+	}
 
-		return values;
+	private void randomValues(double[] genes, int offset) {
+		random.fill(genes, offset, chromosomeSize, -0.5, 0.5);
 	}
 
 }
@@ -0,0 +1,65 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: IslandTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that evolves a range of islands for a number of
+ * generations without waiting for each other. Island "i" of letter "l" has
+ * the flat index "l * islandCount + i". When the task ends every island's
+ * fitness is up to date, and "skipped" holds the evaluations each island
+ * skipped by reusing cached outputs, at its flat index.
+ */
+@SuppressWarnings("serial")
+class IslandTask extends RecursiveAction {
+
+	private final GeneticAlgorithm geneticAlgorithm;
+	private final int from, to, generations;
+	private final int[] skipped;
+
+	IslandTask(GeneticAlgorithm geneticAlgorithm, int from, int to,
+			int generations, int[] skipped) {
+		this.geneticAlgorithm = geneticAlgorithm;
+		this.from = from;
+		this.to = to;
+		this.generations = generations;
+		this.skipped = skipped;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new IslandTask(geneticAlgorithm, from, middle,
+					generations, skipped), new IslandTask(geneticAlgorithm,
+					middle, to, generations, skipped));
+			return;
+		}
+
+		int islandCount = geneticAlgorithm.getIslandCount();
+		int letterIndex = from / islandCount;
+		Genome island = geneticAlgorithm.getIsland(letterIndex, from
+				% islandCount);
+
+		int skippedCount = 0;
+
+		for (int generation = 0; generation < generations; generation++) {
+			skippedCount += geneticAlgorithm.getSkippedEvaluations(island);
+			geneticAlgorithm.calculateFitness(letterIndex, island);
+			island.nextGeneration();
+		}
+
+		skippedCount += geneticAlgorithm.getSkippedEvaluations(island);
+		geneticAlgorithm.calculateFitness(letterIndex, island);
+
+		skipped[from] = skippedCount;
+	}
+
+}
@@ -0,0 +1,19 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: IslandTopology.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+/** Which islands of a letter send their best chromosomes to which. */
+public enum IslandTopology {
+
+	/** Island "i" sends its migrants to island "i + 1", wrapping around. */
+	RING,
+
+	/** Every island sends its migrants to every other island. */
+	FULLY_CONNECTED
+
+}
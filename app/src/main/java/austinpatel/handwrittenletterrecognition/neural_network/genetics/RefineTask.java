@@ -0,0 +1,52 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: RefineTask.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join task that refines the elite chromosomes of a range of islands
+ * with backpropagation. Island "i" of letter "l" has the flat index
+ * "l * islandCount + i".
+ */
+@SuppressWarnings("serial")
+class RefineTask extends RecursiveAction {
+
+	private final GeneticAlgorithm geneticAlgorithm;
+	private final int from, to, eliteCount, steps;
+	private final double learningRate;
+
+	RefineTask(GeneticAlgorithm geneticAlgorithm, int from, int to,
+			int eliteCount, int steps, double learningRate) {
+		this.geneticAlgorithm = geneticAlgorithm;
+		this.from = from;
+		this.to = to;
+		this.eliteCount = eliteCount;
+		this.steps = steps;
+		this.learningRate = learningRate;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+
+			invokeAll(new RefineTask(geneticAlgorithm, from, middle,
+					eliteCount, steps, learningRate), new RefineTask(
+					geneticAlgorithm, middle, to, eliteCount, steps,
+					learningRate));
+			return;
+		}
+
+		int islandCount = geneticAlgorithm.getIslandCount();
+
+		geneticAlgorithm.refineElites(from / islandCount, from % islandCount,
+				eliteCount, steps, learningRate);
+	}
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: LetterDataParserBenchmark.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Compares the parse throughput of the string path of
+ * "FileManager.readFileContent" with "LetterDataParser" on the letter files.
+ */
+public class LetterDataParserBenchmark {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Compares the parse throughput of the string path of
+	 * "FileManager.readFileContent" with this parser on the letter files,
+	 * read into memory first so only parsing is timed.
+	 */
+	public static void main(String[] args) throws IOException {
+		int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : 20;
+		char[] letters = Alphabet.getAlphabet().toCharArray();
+		byte[][] files = new byte[letters.length][];
+		long bytes = 0;
+
+		for (int i = 0; i < letters.length; i++) {
+			InputStream inputStream = FileManager.openLetterFile(letters[i]);
+
+			try {
+				files[i] = readFully(inputStream);
+			} finally {
+				FileManager.close(inputStream);
+			}
+
+			bytes += files[i].length;
+		}
+
+		// Warm up every path, then time them alternately
+		long stringTime = 0, streamTime = 0, bufferTime = 0;
+
+		for (int round = -rounds; round < rounds; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < letters.length; i++) {
+				String[] lines = FileManager
+						.readFileContent(new ByteArrayInputStream(files[i]));
+
+				for (String line : lines)
+					new LetterData(line, letters[i]);
+			}
+
+			long stream = System.nanoTime();
+			for (int i = 0; i < letters.length; i++)
+				LetterDataParser.parse(new ByteArrayInputStream(files[i]), letters[i]);
+
+			long buffer = System.nanoTime();
+			for (int i = 0; i < letters.length; i++)
+				LetterDataParser.parse(ByteBuffer.wrap(files[i]), letters[i]);
+
+			long end = System.nanoTime();
+
+			if (round >= 0) {
+				stringTime += stream - start;
+				streamTime += buffer - stream;
+				bufferTime += end - buffer;
+			}
+		}
+
+		System.out.println(bytes + " bytes, " + rounds + " rounds");
+		print("String split", stringTime, rounds, bytes);
+		print("InputStream parser", streamTime, rounds, bytes);
+		print("ByteBuffer parser", bufferTime, rounds, bytes);
+	}
+
+	private static byte[] readFully(InputStream inputStream)
+			throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+
+		while ((read = inputStream.read(buffer)) != -1)
+			output.write(buffer, 0, read);
+
+		return output.toByteArray();
+	}
+
+	private static void print(String name, long nanos, int rounds, long bytes) {
+		double millis = nanos / 1e6 / rounds;
+
+		System.out.printf("%-20s %8.2f ms %8.1f MB/s%n", name, millis, bytes
+				/ 1e3 / millis);
+	}
+
+}
@@ -0,0 +1,85 @@
+package austinpatel.handwrittenletterrecognition.data;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that "LetterDataParser" packs every sample exactly like
+ * "LetterData(String, char)", whatever the separators and read sizes.
+ */
+public class LetterDataParserTest {
+
+    private static final int PIXEL_COUNT = Constants.GRID_WIDTH * Constants.GRID_HEIGHT;
+
+    private static final String[] SAMPLES = {
+            pixels(1, PIXEL_COUNT), pixels(2, PIXEL_COUNT), pixels(3, 70), pixels(4, PIXEL_COUNT)
+    };
+
+    private static final String TEXT = SAMPLES[0] + " " + SAMPLES[1] + "\n" + SAMPLES[2] + "\r\n" + SAMPLES[3];
+
+    /** Returns "length" random '0' and '1' pixels. */
+    private static String pixels(long seed, int length) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++)
+            builder.append(random.nextBoolean() ? '1' : '0');
+
+        return builder.toString();
+    }
+
+    private static void assertMatchesStringPath(LetterData[] parsed) {
+        assertEquals(SAMPLES.length, parsed.length);
+
+        for (int i = 0; i < SAMPLES.length; i++) {
+            assertArrayEquals(new LetterData(SAMPLES[i], 'q').getBits(), parsed[i].getBits());
+            assertEquals('q', parsed[i].getCharacter());
+        }
+    }
+
+    @Test
+    public void separators_matchStringPath() throws Exception {
+        assertMatchesStringPath(LetterDataParser.parse(new ByteArrayInputStream(TEXT.getBytes("US-ASCII")), 'q'));
+    }
+
+    @Test
+    public void oneByteReads_matchStringPath() throws Exception {
+        InputStream inputStream = new ByteArrayInputStream(TEXT.getBytes("US-ASCII")) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+
+        assertMatchesStringPath(LetterDataParser.parse(inputStream, 'q'));
+    }
+
+    @Test
+    public void heapBuffer_matchesStringPath() throws Exception {
+        assertMatchesStringPath(LetterDataParser.parse(ByteBuffer.wrap(TEXT.getBytes("US-ASCII")), 'q'));
+    }
+
+    @Test
+    public void directBuffer_matchesStringPath() throws Exception {
+        byte[] bytes = TEXT.getBytes("US-ASCII");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+
+        buffer.put(bytes).flip();
+
+        assertMatchesStringPath(LetterDataParser.parse(buffer, 'q'));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oversizedSample_isRejected() throws IOException {
+        LetterDataParser.parse(new ByteArrayInputStream(pixels(5, PIXEL_COUNT + 1).getBytes("US-ASCII")), 'q');
+    }
+
+}
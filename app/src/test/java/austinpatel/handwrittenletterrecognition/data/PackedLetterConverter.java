@@ -0,0 +1,61 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: PackedLetterConverter.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/** Converts the text letter files into a "PackedLetterFile". */
+public class PackedLetterConverter {
+
+	/**
+	 * Converts the text letter files into a packed letter file and checks it
+	 * by mapping it back. The output path defaults to "letters.bin".
+	 */
+	public static void main(String[] args) throws IOException {
+		File file = new File((args.length > 0) ? args[0] : "letters.bin");
+
+		long start = System.nanoTime();
+		LetterDataset dataset = LetterDataset.get();
+		long parsed = System.nanoTime();
+
+		char[] labels = Alphabet.getAlphabet().toCharArray();
+		LetterData[][] samples = new LetterData[labels.length][];
+
+		for (int i = 0; i < labels.length; i++)
+			samples[i] = dataset.getLetter(i).toArray(
+					new LetterData[dataset.getLetter(i).size()]);
+
+		PackedLetterFile.write(file, labels, samples);
+
+		long written = System.nanoTime();
+		PackedLetterFile packedFile = PackedLetterFile.map(file);
+		long mapped = System.nanoTime();
+
+		int mismatches = 0;
+		long[] bits = new long[LetterData.getWordCount()];
+
+		for (int s = 0; s < packedFile.getSampleCount(); s++) {
+			LetterData sample = dataset.getAll().get(s);
+			packedFile.getBits(s, bits);
+
+			if (!Arrays.equals(bits, sample.getBits())
+					|| packedFile.getCharacter(s) != sample.getCharacter())
+				mismatches++;
+		}
+
+		System.out.println("Wrote " + packedFile.getSampleCount()
+				+ " samples, " + file.length() + " bytes, to " + file);
+		System.out.printf("Parse text %.1f ms, write %.1f ms, map %.2f ms%n",
+				(parsed - start) / 1e6, (written - parsed) / 1e6,
+				(mapped - written) / 1e6);
+		System.out.println("Mismatches: " + mismatches);
+	}
+
+}
@@ -0,0 +1,198 @@
+package austinpatel.handwrittenletterrecognition.data;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trips samples through "PackedLetterFile.write" and checks that both
+ * "PackedLetterFile.map" and "PackedLetterReader" read them back and reject
+ * corrupt files.
+ */
+public class PackedLetterFileTest {
+
+    private static final char[] LABELS = {'a', 'b', 'c', 'd'};
+    private static final int[] COUNTS = {3, 0, 5, 1};
+    private static final int COUNTS_OFFSET = PackedLetterFile.Header.FIXED_SIZE + LABELS.length * 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LetterData[][] samples;
+    private File file;
+    private byte[] bytes;
+
+    @Before
+    public void writeFile() throws IOException {
+        Random random = new Random(23);
+        samples = new LetterData[LABELS.length][];
+
+        for (int label = 0; label < LABELS.length; label++) {
+            samples[label] = new LetterData[COUNTS[label]];
+
+            for (int s = 0; s < COUNTS[label]; s++) {
+                long[] bits = new long[LetterData.getWordCount()];
+
+                for (int w = 0; w < bits.length; w++)
+                    bits[w] = random.nextLong();
+
+                // Only the pixels of the grid may be set
+                int pixels = Constants.GRID_WIDTH * Constants.GRID_HEIGHT;
+                if ((pixels & 63) != 0)
+                    bits[bits.length - 1] &= (1L << (pixels & 63)) - 1;
+
+                samples[label][s] = new LetterData(bits, LABELS[label]);
+            }
+        }
+
+        file = folder.newFile("letters.bin");
+        PackedLetterFile.write(file, LABELS, samples);
+        bytes = Files.readAllBytes(file.toPath());
+    }
+
+    @Test
+    public void map_readsEverySample() throws Exception {
+        PackedLetterFile packedFile = PackedLetterFile.map(file);
+        long[] bits = new long[LetterData.getWordCount()];
+        int sample = 0;
+
+        assertEquals(LABELS.length, packedFile.getLabelCount());
+        assertEquals(9, packedFile.getSampleCount());
+
+        for (int label = 0; label < LABELS.length; label++) {
+            assertEquals(LABELS[label], packedFile.getLabel(label));
+            assertEquals(sample, packedFile.getLabelStart(label));
+            assertEquals(COUNTS[label], packedFile.getLabelSampleCount(label));
+
+            for (LetterData letterData : samples[label]) {
+                packedFile.getBits(sample, bits);
+
+                assertArrayEquals(letterData.getBits(), bits);
+                assertArrayEquals(letterData.getBits(), packedFile.getLetterData(sample).getBits());
+                assertEquals(LABELS[label], packedFile.getCharacter(sample));
+                sample++;
+            }
+        }
+    }
+
+    @Test
+    public void reader_readsEverySample() throws Exception {
+        PackedLetterReader reader = new PackedLetterReader(file);
+
+        try {
+            int wordsPerSample = reader.getWordsPerSample();
+            int sampleCount = reader.getSampleCount();
+            long[] words = new long[sampleCount * wordsPerSample];
+            char[] characters = new char[sampleCount];
+
+            assertEquals(9, sampleCount);
+
+            // One sample at a time finds the label of each sample
+            for (int s = 0; s < sampleCount; s++) {
+                reader.read(s, 1, words, characters);
+
+                assertArrayEquals(getSample(s).getBits(), Arrays.copyOf(words, wordsPerSample));
+                assertEquals(getSample(s).getCharacter(), characters[0]);
+            }
+
+            // One run across every label, including the empty one
+            reader.read(0, sampleCount, words, characters);
+
+            for (int s = 0; s < sampleCount; s++) {
+                assertArrayEquals(getSample(s).getBits(),
+                        Arrays.copyOfRange(words, s * wordsPerSample, (s + 1) * wordsPerSample));
+                assertEquals(getSample(s).getCharacter(), characters[s]);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /** Returns sample "sample" in file order. */
+    private LetterData getSample(int sample) {
+        for (LetterData[] letterData : samples) {
+            if (sample < letterData.length)
+                return letterData[sample];
+
+            sample -= letterData.length;
+        }
+
+        throw new IndexOutOfBoundsException();
+    }
+
+    @Test
+    public void badMagic_isRejected() throws Exception {
+        assertRejected(withInt(0, 0x12345678));
+    }
+
+    @Test
+    public void unknownVersion_isRejected() throws Exception {
+        assertRejected(withInt(4, PackedLetterFile.VERSION + 1));
+    }
+
+    @Test
+    public void wrongGrid_isRejected() throws Exception {
+        assertRejected(withInt(8, Constants.GRID_WIDTH + 1));
+    }
+
+    @Test
+    public void negativeCount_isRejected() throws Exception {
+        assertRejected(withInt(COUNTS_OFFSET, -1));
+    }
+
+    @Test
+    public void overflowingCount_isRejected() throws Exception {
+        assertRejected(withInt(COUNTS_OFFSET + 8, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void truncatedBody_isRejected() throws Exception {
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 8));
+    }
+
+    private byte[] withInt(int offset, int value) {
+        byte[] corrupt = bytes.clone();
+
+        ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+
+        return corrupt;
+    }
+
+    private void assertRejected(byte[] corrupt) throws IOException {
+        File corruptFile = folder.newFile();
+        FileOutputStream outputStream = new FileOutputStream(corruptFile);
+
+        try {
+            outputStream.write(corrupt);
+        } finally {
+            outputStream.close();
+        }
+
+        try {
+            PackedLetterFile.map(corruptFile);
+            fail("map accepted a corrupt file");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        try {
+            new PackedLetterReader(corruptFile).close();
+            fail("PackedLetterReader accepted a corrupt file");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package austinpatel.handwrittenletterrecognition.math;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Documents the error bounds of each "SigmoidMode" and checks the derivative
+ * and cost kernels.
+ */
+public class NetworkMathTest {
+
+    private static final double TABLE_ERROR = 3e-6, RATIONAL_ERROR = 5e-5;
+
+    @After
+    public void resetMode() {
+        NetworkMath.setSigmoidMode(SigmoidMode.EXACT);
+    }
+
+    @Test
+    public void tableSigmoid_isWithinBound() throws Exception {
+        for (double x = -40; x <= 40; x += 0.0007)
+            assertEquals(NetworkMath.sigmoidExact(x), NetworkMath.sigmoidTable(x), TABLE_ERROR);
+    }
+
+    @Test
+    public void rationalSigmoid_isWithinBound() throws Exception {
+        for (double x = -40; x <= 40; x += 0.0007)
+            assertEquals(NetworkMath.sigmoidExact(x), NetworkMath.sigmoidRational(x), RATIONAL_ERROR);
+    }
+
+    /**
+     * The approximations are only non-decreasing: the table is flat beyond its
+     * range and the rational form rounds to exactly 0 or 1 for |x| >= 9.94, so
+     * distinct large sums can give equal outputs.
+     */
+    @Test
+    public void approximations_areNonDecreasing() throws Exception {
+        double lastTable = 0, lastRational = 0;
+
+        for (double x = -40; x <= 40; x += 0.0007) {
+            double table = NetworkMath.sigmoidTable(x);
+            double rational = NetworkMath.sigmoidRational(x);
+
+            assertTrue(table >= lastTable);
+            assertTrue(rational >= lastRational);
+
+            lastTable = table;
+            lastRational = rational;
+        }
+
+        assertEquals(NetworkMath.sigmoidTable(16), NetworkMath.sigmoidTable(30), 0);
+        assertEquals(NetworkMath.sigmoidTable(-16), NetworkMath.sigmoidTable(-30), 0);
+        assertEquals(1, NetworkMath.sigmoidRational(10), 0);
+        assertEquals(1, NetworkMath.sigmoidRational(20), 0);
+        assertEquals(0, NetworkMath.sigmoidRational(-10), 0);
+    }
+
+    @Test
+    public void arraySigmoid_matchesScalar() throws Exception {
+        double[] inputs = {-20, -3.5, -0.25, 0, 0.25, 3.5, 20};
+        double[] outputs = new double[inputs.length];
+
+        for (SigmoidMode mode : SigmoidMode.values()) {
+            NetworkMath.setSigmoidMode(mode);
+            NetworkMath.sigmoid(inputs, outputs, inputs.length);
+
+            for (int i = 0; i < inputs.length; i++)
+                assertEquals(NetworkMath.sigmoid(inputs[i]), outputs[i], 0);
+        }
+    }
+
+    @Test
+    public void derivative_matchesFiniteDifference() throws Exception {
+        double h = 1e-6;
+
+        for (double x = -8; x <= 8; x += 0.125) {
+            double expected = (NetworkMath.sigmoidExact(x + h) - NetworkMath.sigmoidExact(x - h)) / (2 * h);
+
+            assertEquals(expected, NetworkMath.derrivativeSigmoid(x), 1e-8);
+        }
+    }
+
+    @Test
+    public void oneHotCost_matchesArrayCost() throws Exception {
+        double[] outputs = {0.1, 0.7, 0.05, 0.3};
+        int[] actual = {0, 1, 0, 0};
+
+        assertEquals(NetworkMath.cost(outputs, actual), NetworkMath.cost(outputs, 1), 0);
+    }
+
+}
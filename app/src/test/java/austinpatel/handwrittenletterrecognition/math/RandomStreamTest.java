@@ -0,0 +1,118 @@
+package austinpatel.handwrittenletterrecognition.math;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that "RandomService" streams are reproducible for a given seed,
+ * namespace and index, and that "RandomStream" stays within its bounds.
+ */
+public class RandomStreamTest {
+
+    private static final int LENGTH = 64;
+
+    private long previousSeed;
+
+    @Before
+    public void setSeed() {
+        previousSeed = RandomService.getSeed();
+        RandomService.setSeed(42);
+    }
+
+    @After
+    public void restoreSeed() {
+        RandomService.setSeed(previousSeed);
+    }
+
+    private static long[] sequence(RandomStream random) {
+        long[] values = new long[LENGTH];
+
+        for (int i = 0; i < values.length; i++)
+            values[i] = random.nextLong();
+
+        return values;
+    }
+
+    private static long[] sequence(long namespace, long index) {
+        return sequence(RandomService.stream(namespace, index));
+    }
+
+    @Test
+    public void sameSeedNamespaceAndIndex_giveSameSequence() throws Exception {
+        long[] first = sequence(RandomService.NEURON_STREAM, 3);
+
+        assertArrayEquals(first, sequence(RandomService.NEURON_STREAM, 3));
+
+        RandomService.setSeed(7);
+        RandomService.setSeed(42);
+        assertArrayEquals(first, sequence(RandomService.NEURON_STREAM, 3));
+    }
+
+    @Test
+    public void differentSeedNamespaceOrIndex_giveDifferentSequences() throws Exception {
+        long[] base = sequence(RandomService.NEURON_STREAM, 3);
+
+        assertFalse(Arrays.equals(base, sequence(RandomService.SHUFFLE_STREAM, 3)));
+        assertFalse(Arrays.equals(base, sequence(RandomService.NEURON_STREAM, 4)));
+
+        // Swapping namespace and index must not give the same stream
+        assertFalse(Arrays.equals(sequence(1, 2), sequence(2, 1)));
+
+        RandomService.setSeed(43);
+        assertFalse(Arrays.equals(base, sequence(RandomService.NEURON_STREAM, 3)));
+    }
+
+    @Test
+    public void fill_staysWithinBounds() throws Exception {
+        RandomStream random = RandomService.stream(RandomService.NEURON_STREAM, 0);
+        double[] values = new double[1000];
+
+        values[99] = 5;
+        values[900] = 5;
+
+        for (int round = 0; round < 10; round++) {
+            random.fill(values, 100, 800, -0.25, 0.5);
+
+            for (int i = 100; i < 900; i++)
+                assertTrue(values[i] >= -0.25 && values[i] < 0.5);
+        }
+
+        // Values outside the range are left alone
+        assertEquals(5, values[99], 0);
+        assertEquals(5, values[900], 0);
+    }
+
+    @Test
+    public void nextInt_staysWithinBound() throws Exception {
+        RandomStream random = RandomService.stream(RandomService.SHUFFLE_STREAM, 0);
+
+        for (int bound = 1; bound < 100; bound++)
+            for (int i = 0; i < 100; i++) {
+                int value = random.nextInt(bound);
+
+                assertTrue(value >= 0 && value < bound);
+            }
+    }
+
+    @Test
+    public void split_isDeterministic() throws Exception {
+        RandomStream first = RandomService.stream(RandomService.GENOME_STREAM, 5);
+        RandomStream second = RandomService.stream(RandomService.GENOME_STREAM, 5);
+
+        RandomStream firstChild = first.split();
+        RandomStream secondChild = second.split();
+
+        assertArrayEquals(sequence(firstChild), sequence(secondChild));
+        assertArrayEquals(sequence(first), sequence(second));
+
+        // The child does not repeat its parent
+        assertFalse(Arrays.equals(sequence(RandomService.stream(RandomService.GENOME_STREAM, 5).split()),
+                sequence(RandomService.GENOME_STREAM, 5)));
+    }
+
+}
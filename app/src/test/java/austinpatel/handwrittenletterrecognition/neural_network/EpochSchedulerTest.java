@@ -0,0 +1,144 @@
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that "EpochScheduler" visits every sample once per epoch, across
+ * budgets and batches, and reports the epoch boundaries in order.
+ */
+public class EpochSchedulerTest {
+
+    private static final int SAMPLE_COUNT = 10;
+
+    /** Takes the remaining budget one index at a time. */
+    private static List<Integer> drain(EpochScheduler scheduler) {
+        List<Integer> samples = new ArrayList<Integer>();
+        int sample;
+
+        while ((sample = scheduler.next()) >= 0)
+            samples.add(sample);
+
+        return samples;
+    }
+
+    private static void assertPermutation(List<Integer> samples) {
+        int[] sorted = new int[samples.size()];
+
+        for (int i = 0; i < sorted.length; i++)
+            sorted[i] = samples.get(i);
+
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < sorted.length; i++)
+            assertEquals(i, sorted[i]);
+    }
+
+    @Test
+    public void splitBudget_visitsEverySampleOncePerEpoch() throws Exception {
+        EpochScheduler scheduler = new EpochScheduler(SAMPLE_COUNT);
+        List<Integer> samples = new ArrayList<Integer>();
+
+        scheduler.setBudget(2.5, 0);
+        samples.addAll(drain(scheduler));
+        assertEquals(25, samples.size());
+
+        scheduler.setBudget(0.5, 0);
+        samples.addAll(drain(scheduler));
+        assertEquals(30, samples.size());
+
+        for (int epoch = 0; epoch < 3; epoch++)
+            assertPermutation(samples.subList(epoch * SAMPLE_COUNT, (epoch + 1) * SAMPLE_COUNT));
+
+        assertEquals(2, scheduler.getEpoch());
+    }
+
+    @Test
+    public void splitBudget_matchesOneBudget() throws Exception {
+        EpochScheduler split = new EpochScheduler(SAMPLE_COUNT);
+        EpochScheduler whole = new EpochScheduler(SAMPLE_COUNT);
+
+        split.setBudget(2.5, 0);
+        List<Integer> samples = drain(split);
+        split.setBudget(0.5, 0);
+        samples.addAll(drain(split));
+
+        whole.setBudget(3, 0);
+
+        assertEquals(drain(whole), samples);
+    }
+
+    @Test
+    public void listeners_seeEpochBoundariesInOrder() throws Exception {
+        EpochScheduler scheduler = new EpochScheduler(SAMPLE_COUNT);
+        final StringBuilder events = new StringBuilder();
+
+        scheduler.addListener(new EpochScheduler.EpochListener() {
+            @Override
+            public void onEpochStart(int epoch) {
+                events.append("S").append(epoch).append(' ');
+            }
+
+            @Override
+            public void onEpochEnd(int epoch) {
+                events.append("E").append(epoch).append(' ');
+            }
+        });
+
+        scheduler.setBudget(2.5, 0);
+        drain(scheduler);
+        assertEquals("S0 E0 S1 E1 S2 ", events.toString());
+
+        scheduler.setBudget(0.5, 0);
+        drain(scheduler);
+        assertEquals("S0 E0 S1 E1 S2 E2 ", events.toString());
+    }
+
+    @Test
+    public void batches_crossEpochBoundaries() throws Exception {
+        EpochScheduler scheduler = new EpochScheduler(SAMPLE_COUNT);
+        int[] batch = new int[7];
+        List<Integer> samples = new ArrayList<Integer>();
+        int count;
+
+        scheduler.setBudget(2, 0);
+
+        assertEquals(7, scheduler.next(batch, batch.length));
+        for (int i = 0; i < 7; i++)
+            samples.add(batch[i]);
+
+        // 3 samples of epoch 0 and 4 of epoch 1
+        assertEquals(7, scheduler.next(batch, batch.length));
+        assertEquals(1, scheduler.getEpoch());
+        for (int i = 0; i < 7; i++)
+            samples.add(batch[i]);
+
+        assertEquals(6, count = scheduler.next(batch, batch.length));
+        for (int i = 0; i < count; i++)
+            samples.add(batch[i]);
+
+        assertEquals(0, scheduler.next(batch, batch.length));
+
+        assertPermutation(samples.subList(0, SAMPLE_COUNT));
+        assertPermutation(samples.subList(SAMPLE_COUNT, 2 * SAMPLE_COUNT));
+    }
+
+    @Test
+    public void spentBudget_returnsMinusOne() throws Exception {
+        EpochScheduler scheduler = new EpochScheduler(SAMPLE_COUNT);
+
+        assertEquals(-1, scheduler.next());
+
+        scheduler.setBudget(0.3, 0);
+        assertEquals(3, drain(scheduler).size());
+        assertEquals(0, scheduler.getRemaining());
+        assertEquals(-1, scheduler.next());
+        assertEquals(-1, scheduler.next());
+    }
+
+}
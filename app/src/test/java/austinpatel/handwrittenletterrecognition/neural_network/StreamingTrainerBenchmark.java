@@ -0,0 +1,49 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: StreamingTrainerBenchmark.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.io.File;
+import java.io.IOException;
+
+import austinpatel.handwrittenletterrecognition.data.Alphabet;
+import austinpatel.handwrittenletterrecognition.data.Constants;
+import austinpatel.handwrittenletterrecognition.data.ExperimentalData;
+
+/** Times "StreamingTrainer" on a packed letter file. */
+public class StreamingTrainerBenchmark {
+
+	/**
+	 * Trains a network on a packed letter file and tests it on the letter
+	 * files. Arguments: file, epochs, shard size, window size, batch size.
+	 */
+	public static void main(String[] args) throws IOException {
+		File file = new File((args.length > 0) ? args[0] : "letters.bin");
+		int epochs = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+		int shardSize = (args.length > 2) ? Integer.parseInt(args[2]) : 256;
+		int windowSize = (args.length > 3) ? Integer.parseInt(args[3]) : 1024;
+		int batchSize = (args.length > 4) ? Integer.parseInt(args[4]) : 1;
+
+		NeuralNetwork neuralNetwork = new NeuralNetwork(
+				new BackpropagationAlgorithm(0.1), Constants.GRID_WIDTH
+						* Constants.GRID_HEIGHT, Alphabet.getLength());
+		StreamingTrainer trainer = new StreamingTrainer(neuralNetwork, file,
+				shardSize, windowSize, batchSize);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < epochs; i++)
+			trainer.trainEpoch();
+		long time = System.nanoTime() - start;
+
+		ExperimentalData experimentalData = new Experimenter(neuralNetwork)
+				.testNetwork();
+
+		System.out.printf("%d epochs in %.0f ms, accuracy %d%%%n", epochs,
+				time / 1e6, (int) (experimentalData.getAccuracy() * 100));
+	}
+
+}
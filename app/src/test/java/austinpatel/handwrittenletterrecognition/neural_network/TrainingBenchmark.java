@@ -0,0 +1,120 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: TrainingBenchmark.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import austinpatel.handwrittenletterrecognition.data.Alphabet;
+import austinpatel.handwrittenletterrecognition.data.Constants;
+
+/**
+ * Compares the training throughput of each "TrainingMode" against the
+ * single-threaded per-sample loop, starting every run from the same weights.
+ */
+public class TrainingBenchmark {
+
+	private static final int BATCH_SIZE = 64, ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int parallelism = (args.length > 0) ? Integer.parseInt(args[0])
+				: Runtime.getRuntime().availableProcessors();
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		NeuralNetwork initial = createNetwork();
+
+		double baseline = time(initial, TrainingMode.SINGLE_THREADED, 1, pool);
+		double batched = time(initial, TrainingMode.SINGLE_THREADED,
+				BATCH_SIZE, pool);
+		double synchronous = time(initial, TrainingMode.SYNCHRONOUS,
+				BATCH_SIZE, pool);
+		double hogwild = time(initial, TrainingMode.HOGWILD, BATCH_SIZE, pool);
+
+		System.out.println("Parallelism: " + parallelism);
+		print("Single-threaded, per sample", baseline, baseline);
+		print("Single-threaded, batch " + BATCH_SIZE, batched, baseline);
+		print("Synchronous, batch " + BATCH_SIZE, synchronous, baseline);
+		print("Hogwild, batch " + BATCH_SIZE, hogwild, baseline);
+
+		// The synchronous mode must give the same weights on every run
+		double[] first = train(initial, TrainingMode.SYNCHRONOUS, BATCH_SIZE,
+				pool);
+		double[] second = train(initial, TrainingMode.SYNCHRONOUS, BATCH_SIZE,
+				pool);
+		System.out.println("Synchronous deterministic: "
+				+ Arrays.equals(first, second));
+
+		pool.shutdown();
+	}
+
+	private static NeuralNetwork createNetwork() {
+		return new NeuralNetwork(new BackpropagationAlgorithm(0.1),
+				Constants.GRID_WIDTH * Constants.GRID_HEIGHT,
+				Alphabet.getLength());
+	}
+
+	/** Returns the mean time of one training pass in milliseconds. */
+	private static double time(NeuralNetwork initial, TrainingMode mode,
+			int batchSize, ForkJoinPool pool) {
+		NeuralNetwork neuralNetwork = createNetwork();
+		Trainer trainer = createTrainer(neuralNetwork, mode, batchSize, pool);
+
+		// Warm up
+		train(initial, neuralNetwork, trainer);
+
+		long time = 0;
+
+		for (int round = 0; round < ROUNDS; round++)
+			time += train(initial, neuralNetwork, trainer);
+
+		return time / 1e6 / ROUNDS;
+	}
+
+	/** Trains once and returns the resulting weights. */
+	private static double[] train(NeuralNetwork initial, TrainingMode mode,
+			int batchSize, ForkJoinPool pool) {
+		NeuralNetwork neuralNetwork = createNetwork();
+
+		train(initial, neuralNetwork,
+				createTrainer(neuralNetwork, mode, batchSize, pool));
+
+		return neuralNetwork.getWeightMatrix().getWeights();
+	}
+
+	private static Trainer createTrainer(NeuralNetwork neuralNetwork,
+			TrainingMode mode, int batchSize, ForkJoinPool pool) {
+		Trainer trainer = new Trainer(neuralNetwork);
+		trainer.setBatchSize(batchSize);
+		trainer.setTrainingMode(mode, pool);
+
+		return trainer;
+	}
+
+	/**
+	 * Resets the network to the initial weights, trains it once and returns
+	 * the training time in nanoseconds.
+	 */
+	private static long train(NeuralNetwork initial,
+			NeuralNetwork neuralNetwork, Trainer trainer) {
+		double[] weights = neuralNetwork.getWeightMatrix().getWeights();
+
+		System.arraycopy(initial.getWeightMatrix().getWeights(), 0, weights, 0,
+				weights.length);
+
+		long startTime = System.nanoTime();
+		trainer.trainNetwork();
+
+		return System.nanoTime() - startTime;
+	}
+
+	private static void print(String name, double time, double baseline) {
+		System.out.println(name + ": " + String.format("%.1f", time)
+				+ "ms (" + String.format("%.2f", baseline / time) + "x)");
+	}
+
+}
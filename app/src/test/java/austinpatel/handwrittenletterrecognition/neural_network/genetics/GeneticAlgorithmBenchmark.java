@@ -0,0 +1,160 @@
+/**
+ * Author: Handwritten Recognition contributors
+ * Project: Handwritten Recognition
+ * File Name: GeneticAlgorithmBenchmark.java
+ * Created: 10/18/26
+ */
+
+package austinpatel.handwrittenletterrecognition.neural_network.genetics;
+
+import austinpatel.handwrittenletterrecognition.data.Alphabet;
+import austinpatel.handwrittenletterrecognition.data.Constants;
+import austinpatel.handwrittenletterrecognition.neural_network.GeneticAlgorithmLearningMethod;
+import austinpatel.handwrittenletterrecognition.neural_network.NeuralNetwork;
+
+/**
+ * Compares the generation throughput of the pooled "GeneticAlgorithm" at
+ * several pool sizes against starting one thread per letter every
+ * generation. Both use the same "FitnessContext" scoring, so only the
+ * scheduling differs. Island model times are per population of
+ * "CHROMOSOMES".
+ */
+public class GeneticAlgorithmBenchmark {
+
+	private static final int CHROMOSOMES = 100, GENERATIONS = 10;
+	private static final int ISLANDS = 4, MIGRATION_INTERVAL = 5;
+
+	public static void main(String[] args) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int[] parallelisms = { 1, 2, 4, processors };
+
+		double legacy = timeLegacy();
+
+		System.out.println("Processors: " + processors);
+		print("Thread per letter, same scoring", legacy, legacy);
+
+		for (int parallelism : parallelisms)
+			print("Pool of " + parallelism, timePooled(parallelism), legacy);
+
+		// The island model evolves ISLANDS times as many chromosomes
+		for (int parallelism : parallelisms)
+			print(ISLANDS + " islands, pool of " + parallelism,
+					timeIslands(parallelism) / ISLANDS, legacy);
+	}
+
+	private static GeneticAlgorithm createGeneticAlgorithm() {
+		GeneticAlgorithm geneticAlgorithm = new GeneticAlgorithm(CHROMOSOMES,
+				GENERATIONS, 0.5, 0);
+
+		NeuralNetwork neuralNetwork = new NeuralNetwork(
+				new GeneticAlgorithmLearningMethod(geneticAlgorithm),
+				Constants.GRID_WIDTH * Constants.GRID_HEIGHT,
+				Alphabet.getLength());
+		geneticAlgorithm.setNeuralNetwork(neuralNetwork);
+
+		return geneticAlgorithm;
+	}
+
+	/** Returns the mean time of one pooled generation in milliseconds. */
+	private static double timePooled(int parallelism) {
+		GeneticAlgorithm geneticAlgorithm = createGeneticAlgorithm();
+		geneticAlgorithm.setParallelism(parallelism);
+
+		// Warm up
+		geneticAlgorithm.nextGeneration();
+
+		long startTime = System.nanoTime();
+
+		for (int generation = 0; generation < GENERATIONS; generation++)
+			geneticAlgorithm.nextGeneration();
+
+		long time = System.nanoTime() - startTime;
+		geneticAlgorithm.shutdown();
+
+		return time / 1e6 / GENERATIONS;
+	}
+
+	/**
+	 * Returns the mean time of one island model generation in milliseconds.
+	 */
+	private static double timeIslands(int parallelism) {
+		GeneticAlgorithm geneticAlgorithm = createGeneticAlgorithm();
+		geneticAlgorithm.setParallelism(parallelism);
+		geneticAlgorithm.setIslands(ISLANDS, MIGRATION_INTERVAL, 2,
+				IslandTopology.RING);
+
+		// Warm up
+		geneticAlgorithm.nextGeneration();
+
+		long startTime = System.nanoTime();
+
+		for (int cycle = 0; cycle < GENERATIONS / MIGRATION_INTERVAL; cycle++)
+			geneticAlgorithm.nextGeneration();
+
+		long time = System.nanoTime() - startTime;
+		geneticAlgorithm.shutdown();
+
+		return time / 1e6 / GENERATIONS;
+	}
+
+	/**
+	 * Returns the mean time of one generation in milliseconds when a new
+	 * thread is started for every letter each generation. The threads score
+	 * with the current "FitnessContext", not the original per-chromosome
+	 * network evaluation.
+	 */
+	private static double timeLegacy() {
+		GeneticAlgorithm geneticAlgorithm = createGeneticAlgorithm();
+
+		// Warm up
+		nextGenerationLegacy(geneticAlgorithm);
+
+		long startTime = System.nanoTime();
+
+		for (int generation = 0; generation < GENERATIONS; generation++)
+			nextGenerationLegacy(geneticAlgorithm);
+
+		return (System.nanoTime() - startTime) / 1e6 / GENERATIONS;
+	}
+
+	private static void nextGenerationLegacy(
+			final GeneticAlgorithm geneticAlgorithm) {
+		final Genome[] genomes = geneticAlgorithm.getGenomes();
+		geneticAlgorithm.updateFitnessContext();
+
+		Thread[] workers = new Thread[genomes.length];
+
+		for (int letterIndex = 0; letterIndex < genomes.length; letterIndex++) {
+			final int letterIndexFinal = letterIndex;
+
+			workers[letterIndex] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < CHROMOSOMES; i++)
+						geneticAlgorithm.calculateFitness(letterIndexFinal, i,
+								i + 1);
+				}
+			});
+
+			workers[letterIndex].start();
+		}
+
+		try {
+			for (Thread thread : workers)
+				thread.join();
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+
+		geneticAlgorithm.commitWeights();
+
+		for (Genome genome : genomes)
+			genome.nextGeneration();
+	}
+
+	private static void print(String name, double time, double baseline) {
+		System.out.println(name + ": " + String.format("%.1f", time)
+				+ "ms (" + String.format("%.2f", baseline / time) + "x)");
+	}
+
+}